@@ -0,0 +1,24 @@
+package com.dids.anomaly;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A window in which a device's event rate or failure ratio deviated from its baseline.
+ */
+@Getter
+@AllArgsConstructor
+public class Anomaly {
+
+    public enum Kind {
+        EVENT_RATE,
+        FAILURE_RATIO
+    }
+
+    private final String deviceId;
+    private final Kind kind;
+    private final String severity;
+    private final double observed;
+    private final double expected;
+    private final double zScore;
+}
@@ -0,0 +1,360 @@
+package com.dids.anomaly;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Streaming per-device baseline of event rate and failure ratio over fixed time windows.
+ *
+ * Each device owns one slot in a set of parallel primitive arrays: the counts of the window in
+ * progress, an exponentially weighted mean and variance of past windows' event counts and failure
+ * ratios, and a log-scale histogram of past counts used as a quantile sketch. Memory is fixed at
+ * construction (roughly 200 bytes per device) and nothing is allocated per event.
+ *
+ * Deviations are checked as events arrive, so a spike is reported while it is happening rather
+ * than when its window closes; a window reports each kind of anomaly once per severity level.
+ * Slots are guarded by striped locks.
+ */
+public class AnomalyDetector {
+
+    private static final int SNAPSHOT_MAGIC = 0x44414E4D; // "DANM"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final int STRIPES = 64;
+    private static final int HIST_BUCKETS = 32;
+    private static final int HIST_DECAY_AT = 4096;
+    private static final int MAX_GAP_WINDOWS = 256;
+    private static final double QUANTILE = 0.99;
+    private static final double MIN_RATIO_STD = 0.05;
+
+    private static final byte NONE = 0;
+    private static final byte MEDIUM = 1;
+    private static final byte HIGH = 2;
+    private static final byte CRITICAL = 3;
+    private static final String[] SEVERITIES = {null, "medium", "high", "critical"};
+
+    private final DeviceSlots slots;
+    private final Object[] locks = new Object[STRIPES];
+    private final long windowMillis;
+    private final double alpha;
+    private final int warmupWindows;
+    private final int minEvents;
+    private final double mediumZ;
+    private final double highZ;
+    private final double criticalZ;
+
+    // Window in progress
+    private final long[] window;
+    private final int[] events;
+    private final int[] failures;
+    private final byte[] rateReported;
+    private final byte[] ratioReported;
+
+    // Baseline over closed windows
+    private final double[] rateMean;
+    private final double[] rateVar;
+    private final double[] ratioMean;
+    private final double[] ratioVar;
+    private final int[] windows;
+    private final int[] hist;
+    private final int[] histTotal;
+    private final boolean[] restored;
+
+    public AnomalyDetector(int maxDevices, long windowMillis, double alpha, int warmupWindows, int minEvents,
+                           double mediumZ, double highZ, double criticalZ) {
+        this.slots = new DeviceSlots(maxDevices);
+        this.windowMillis = windowMillis;
+        this.alpha = alpha;
+        this.warmupWindows = warmupWindows;
+        this.minEvents = minEvents;
+        this.mediumZ = mediumZ;
+        this.highZ = highZ;
+        this.criticalZ = criticalZ;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        window = new long[maxDevices];
+        events = new int[maxDevices];
+        failures = new int[maxDevices];
+        rateReported = new byte[maxDevices];
+        ratioReported = new byte[maxDevices];
+        rateMean = new double[maxDevices];
+        rateVar = new double[maxDevices];
+        ratioMean = new double[maxDevices];
+        ratioVar = new double[maxDevices];
+        windows = new int[maxDevices];
+        hist = new int[maxDevices * HIST_BUCKETS];
+        histTotal = new int[maxDevices];
+        restored = new boolean[maxDevices];
+    }
+
+    public int devices() {
+        return slots.size();
+    }
+
+    /**
+     * Counts one event for a device.
+     *
+     * @param timestamp when the event happened, in epoch millis; it picks the window it is counted in
+     * @return the anomaly this event pushed the device into, or null
+     */
+    public Anomaly record(String deviceId, long timestamp, boolean failure) {
+        int slot = slots.register(deviceId);
+        if (slot < 0) {
+            return null;
+        }
+        long current = timestamp / windowMillis;
+        synchronized (locks[slot & (STRIPES - 1)]) {
+            if (current != window[slot]) {
+                if (current < window[slot]) {
+                    return null; // late event for a closed window
+                }
+                roll(slot, current);
+            }
+            int n = ++events[slot];
+            if (failure) {
+                failures[slot]++;
+            }
+            if (windows[slot] < warmupWindows || n < minEvents) {
+                return null;
+            }
+            Anomaly anomaly = checkRate(deviceId, slot, n);
+            return anomaly != null ? anomaly : checkRatio(deviceId, slot, n);
+        }
+    }
+
+    private Anomaly checkRate(String deviceId, int slot, int n) {
+        double mean = rateMean[slot];
+        // Poisson floor: a perfectly steady device must not alert on a single extra event
+        double std = Math.max(Math.sqrt(rateVar[slot]), Math.max(Math.sqrt(mean), 1.0));
+        double z = (n - mean) / std;
+        byte level = level(z);
+        if (level <= rateReported[slot] || n <= quantile(slot, QUANTILE)) {
+            return null;
+        }
+        rateReported[slot] = level;
+        return new Anomaly(deviceId, Anomaly.Kind.EVENT_RATE, SEVERITIES[level], n, mean, z);
+    }
+
+    private Anomaly checkRatio(String deviceId, int slot, int n) {
+        double ratio = (double) failures[slot] / n;
+        double mean = ratioMean[slot];
+        // sampling noise of a ratio over n events adds to the baseline's own variance
+        double noise = Math.max(mean, 1.0 / n) * (1 - mean) / n;
+        double z = (ratio - mean) / Math.max(Math.sqrt(ratioVar[slot] + noise), MIN_RATIO_STD);
+        byte level = level(z);
+        if (level <= ratioReported[slot]) {
+            return null;
+        }
+        ratioReported[slot] = level;
+        return new Anomaly(deviceId, Anomaly.Kind.FAILURE_RATIO, SEVERITIES[level], ratio, mean, z);
+    }
+
+    private byte level(double z) {
+        if (z >= criticalZ) {
+            return CRITICAL;
+        }
+        if (z >= highZ) {
+            return HIGH;
+        }
+        return z >= mediumZ ? MEDIUM : NONE;
+    }
+
+    /**
+     * Folds the finished window (and any empty windows since) into the baseline.
+     *
+     * The first roll after a snapshot restore folds nothing: the window that was in progress lost
+     * the events sent while the service was down, and the windows since were never observed, so
+     * folding them in as empty would drag the baseline towards zero.
+     */
+    private void roll(int slot, long current) {
+        if (restored[slot]) {
+            restored[slot] = false;
+        } else if (window[slot] != 0) {
+            close(slot, events[slot], failures[slot]);
+            long gap = Math.min(current - window[slot] - 1, MAX_GAP_WINDOWS);
+            for (long i = 0; i < gap; i++) {
+                close(slot, 0, 0);
+            }
+        }
+        window[slot] = current;
+        events[slot] = 0;
+        failures[slot] = 0;
+        rateReported[slot] = NONE;
+        ratioReported[slot] = NONE;
+    }
+
+    private void close(int slot, int n, int failed) {
+        if (windows[slot] == 0) {
+            rateMean[slot] = n;
+        } else {
+            double diff = n - rateMean[slot];
+            double increment = alpha * diff;
+            rateMean[slot] += increment;
+            rateVar[slot] = (1 - alpha) * (rateVar[slot] + diff * increment);
+        }
+        if (n > 0) {
+            double diff = (double) failed / n - ratioMean[slot];
+            double increment = alpha * diff;
+            ratioMean[slot] += increment;
+            ratioVar[slot] = (1 - alpha) * (ratioVar[slot] + diff * increment);
+        }
+        if (windows[slot] < Integer.MAX_VALUE) {
+            windows[slot]++;
+        }
+
+        int base = slot * HIST_BUCKETS;
+        hist[base + bucketOf(n)]++;
+        if (++histTotal[slot] >= HIST_DECAY_AT) {
+            // halve the sketch so old windows fade out
+            int total = 0;
+            for (int b = base; b < base + HIST_BUCKETS; b++) {
+                hist[b] >>= 1;
+                total += hist[b];
+            }
+            histTotal[slot] = total;
+        }
+    }
+
+    /**
+     * Approximate q-quantile of past window counts: the upper edge of the histogram bucket that
+     * contains it.
+     */
+    private int quantile(int slot, double q) {
+        int base = slot * HIST_BUCKETS;
+        long rank = (long) Math.ceil(q * histTotal[slot]);
+        long seen = 0;
+        for (int b = 0; b < HIST_BUCKETS; b++) {
+            seen += hist[base + b];
+            if (seen >= rank) {
+                return upperBound(b);
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Two buckets per power of two of (count + 1): [2^h, 1.5*2^h) and [1.5*2^h, 2^(h+1)).
+     */
+    private static int bucketOf(int count) {
+        int x = count + 1;
+        int h = 31 - Integer.numberOfLeadingZeros(x);
+        int half = h > 0 ? (x >>> (h - 1)) & 1 : 0;
+        return Math.min(2 * h + half, HIST_BUCKETS - 1);
+    }
+
+    private static int upperBound(int bucket) {
+        if (bucket < 2) {
+            return 0;
+        }
+        int h = bucket / 2;
+        long limit = bucket % 2 == 0 ? (3L << h) / 2 : 2L << h;
+        return (int) Math.min(limit - 2, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Writes every device's baseline and window in progress. Each slot is copied under its stripe
+     * lock and written after the lock is released, so a slow disk never stalls ingestion.
+     */
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        String[] ids = slots.ids();
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeLong(windowMillis);
+        out.writeInt(ids.length);
+        int[] buckets = new int[HIST_BUCKETS];
+        for (int slot = 0; slot < ids.length; slot++) {
+            long savedWindow;
+            int savedEvents;
+            int savedFailures;
+            double savedRateMean;
+            double savedRateVar;
+            double savedRatioMean;
+            double savedRatioVar;
+            int savedWindows;
+            int savedHistTotal;
+            synchronized (locks[slot & (STRIPES - 1)]) {
+                savedWindow = window[slot];
+                savedEvents = events[slot];
+                savedFailures = failures[slot];
+                savedRateMean = rateMean[slot];
+                savedRateVar = rateVar[slot];
+                savedRatioMean = ratioMean[slot];
+                savedRatioVar = ratioVar[slot];
+                savedWindows = windows[slot];
+                savedHistTotal = histTotal[slot];
+                System.arraycopy(hist, slot * HIST_BUCKETS, buckets, 0, HIST_BUCKETS);
+            }
+
+            out.writeUTF(ids[slot]);
+            out.writeLong(savedWindow);
+            out.writeInt(savedEvents);
+            out.writeInt(savedFailures);
+            out.writeDouble(savedRateMean);
+            out.writeDouble(savedRateVar);
+            out.writeDouble(savedRatioMean);
+            out.writeDouble(savedRatioVar);
+            out.writeInt(savedWindows);
+            out.writeInt(savedHistTotal);
+            for (int b = 0; b < HIST_BUCKETS; b++) {
+                out.writeInt(buckets[b]);
+            }
+        }
+    }
+
+    /**
+     * Restores baselines written by {@link #writeSnapshot}. The restored windows in progress and the
+     * downtime after them are left out of the baselines (see {@link #roll}).
+     *
+     * @return the number of devices restored
+     * @throws IOException if the snapshot is unreadable or was taken with a different window size
+     */
+    public int readSnapshot(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Not an anomaly baseline snapshot");
+        }
+        long snapshotWindow = in.readLong();
+        if (snapshotWindow != windowMillis) {
+            throw new IOException("Snapshot window is " + snapshotWindow + " ms, configured " + windowMillis + " ms");
+        }
+        int count = in.readInt();
+        int restoredCount = 0;
+        int[] buckets = new int[HIST_BUCKETS];
+        for (int i = 0; i < count; i++) {
+            String deviceId = in.readUTF();
+            long savedWindow = in.readLong();
+            int savedEvents = in.readInt();
+            int savedFailures = in.readInt();
+            double savedRateMean = in.readDouble();
+            double savedRateVar = in.readDouble();
+            double savedRatioMean = in.readDouble();
+            double savedRatioVar = in.readDouble();
+            int savedWindows = in.readInt();
+            int savedHistTotal = in.readInt();
+            for (int b = 0; b < HIST_BUCKETS; b++) {
+                buckets[b] = in.readInt();
+            }
+
+            int slot = slots.register(deviceId);
+            if (slot < 0) {
+                continue;
+            }
+            synchronized (locks[slot & (STRIPES - 1)]) {
+                window[slot] = savedWindow;
+                events[slot] = savedEvents;
+                failures[slot] = savedFailures;
+                rateMean[slot] = savedRateMean;
+                rateVar[slot] = savedRateVar;
+                ratioMean[slot] = savedRatioMean;
+                ratioVar[slot] = savedRatioVar;
+                windows[slot] = savedWindows;
+                histTotal[slot] = savedHistTotal;
+                System.arraycopy(buckets, 0, hist, slot * HIST_BUCKETS, HIST_BUCKETS);
+                restored[slot] = true;
+            }
+            restoredCount++;
+        }
+        return restoredCount;
+    }
+}
@@ -0,0 +1,89 @@
+package com.dids.anomaly;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Fixed-capacity map from device id to a dense slot number, backed by two parallel arrays with
+ * linear probing. Lookups are lock-free; inserts are serialised. Slots are never reused.
+ */
+final class DeviceSlots {
+
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(String[].class);
+
+    private final String[] keys;
+    private final int[] slots;
+    private final int mask;
+    private final int maxDevices;
+    private int size;
+
+    DeviceSlots(int maxDevices) {
+        int capacity = Integer.highestOneBit(Math.max(maxDevices * 2, 16) - 1) << 1;
+        this.keys = new String[capacity];
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        this.maxDevices = maxDevices;
+    }
+
+    /**
+     * @return the device's slot, or -1 if it is unknown
+     */
+    int slotOf(String deviceId) {
+        for (int i = spread(deviceId.hashCode()) & mask; ; i = (i + 1) & mask) {
+            String key = (String) KEYS.getAcquire(keys, i);
+            if (key == null) {
+                return -1;
+            }
+            if (key.equals(deviceId)) {
+                return slots[i];
+            }
+        }
+    }
+
+    /**
+     * @return the device's slot, assigning the next free one if needed, or -1 when full
+     */
+    int register(String deviceId) {
+        int slot = slotOf(deviceId);
+        return slot >= 0 ? slot : insert(deviceId);
+    }
+
+    int size() {
+        synchronized (this) {
+            return size;
+        }
+    }
+
+    /**
+     * Device id for each slot in {@code [0, size())}.
+     */
+    synchronized String[] ids() {
+        String[] ids = new String[size];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                ids[slots[i]] = keys[i];
+            }
+        }
+        return ids;
+    }
+
+    private synchronized int insert(String deviceId) {
+        int i = spread(deviceId.hashCode()) & mask;
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(deviceId)) {
+                return slots[i];
+            }
+        }
+        if (size == maxDevices) {
+            return -1;
+        }
+        slots[i] = size;
+        // publish the key after its slot so lock-free readers never see a half-written entry
+        KEYS.setRelease(keys, i, deviceId);
+        return size++;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+}
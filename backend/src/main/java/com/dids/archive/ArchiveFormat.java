@@ -0,0 +1,46 @@
+package com.dids.archive;
+
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+
+/**
+ * Layout of an export archive: a sequence of independent gzip members ("chunks"), each holding
+ * one header line followed by up to a few thousand documents, one canonical Extended JSON document
+ * per line:
+ *
+ * <pre>
+ * {"$chunk": {"collection": "logs", "count": {"$numberInt": "5000"}}}
+ * {"_id": {"$oid": "..."}, "timestamp": {"$date": {"$numberLong": "..."}}, ...}
+ * </pre>
+ *
+ * The whole file is a valid .gz of NDJSON; chunk boundaries let an import resume part-way
+ * through and let exports compress in parallel. Import reads each gzip member as exactly one
+ * chunk (see {@link ChunkReader}).
+ */
+public final class ArchiveFormat {
+
+    public static final String CHUNK_KEY = "$chunk";
+    public static final String CONTENT_TYPE = "application/gzip";
+    public static final String FILE_SUFFIX = ".ndjson.gz";
+
+    /**
+     * A chunk is sealed once it reaches the size limit, so it may run over by up to one document
+     * (MongoDB's 16 MB maximum).
+     */
+    public static final int MAX_DOCUMENT_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * Canonical mode keeps every BSON type: relaxed mode writes Int64 and Double as bare numbers,
+     * which parse back as Int32 when they fit.
+     */
+    public static final JsonWriterSettings JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+
+    private ArchiveFormat() {
+    }
+
+    public static boolean isChunkHeader(String line) {
+        return line.startsWith("{\"" + CHUNK_KEY + "\"");
+    }
+}
@@ -0,0 +1,68 @@
+package com.dids.archive;
+
+import org.bson.Document;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Accumulates documents of one collection and seals them into a compressed archive chunk.
+ * Reused across chunks, so a reader thread keeps a constant-size buffer.
+ */
+public final class ChunkBuilder {
+
+    private final String collection;
+    private final ByteArrayOutputStream lines = new ByteArrayOutputStream(1 << 16);
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(1 << 16);
+    private int count;
+
+    public ChunkBuilder(String collection) {
+        this.collection = collection;
+    }
+
+    public void add(Document document) {
+        byte[] json = document.toJson(ArchiveFormat.JSON).getBytes(StandardCharsets.UTF_8);
+        lines.write(json, 0, json.length);
+        lines.write('\n');
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int size() {
+        return lines.size();
+    }
+
+    /**
+     * @return the chunk as a complete gzip member, after which the builder is empty again
+     */
+    public byte[] seal() throws IOException {
+        compressed.reset();
+        Document header = new Document(ArchiveFormat.CHUNK_KEY,
+                new Document("collection", collection).append("count", count));
+        try (OutputStream gzip = new FastGzipOutputStream(compressed)) {
+            gzip.write(header.toJson(ArchiveFormat.JSON).getBytes(StandardCharsets.UTF_8));
+            gzip.write('\n');
+            lines.writeTo(gzip);
+        }
+        lines.reset();
+        count = 0;
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Favours throughput: exports are usually bounded by compression, not disk.
+     */
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+        FastGzipOutputStream(OutputStream out) throws IOException {
+            super(out, 1 << 16);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.dids.archive;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads an archive one gzip member (chunk) at a time, parsing member headers and trailers itself.
+ *
+ * {@link java.util.zip.GZIPInputStream} decides whether another member follows by calling
+ * {@code available()}, which a network upload can report as 0 between packets; it then ends the
+ * stream early and the remaining chunks are silently lost. Here the archive only ends cleanly at
+ * end of input on a member boundary; input ending anywhere else is an {@link EOFException}.
+ */
+public final class ChunkReader implements AutoCloseable {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final InputStream in;
+    private final int maxChunkBytes;
+    private final byte[] buf = new byte[1 << 16];
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    private int pos;
+    private int limit;
+    private byte[] chunk = new byte[1 << 16];
+
+    /**
+     * @param maxChunkBytes largest decompressed chunk accepted; larger ones fail the read
+     */
+    public ChunkReader(InputStream in, int maxChunkBytes) {
+        this.in = in;
+        this.maxChunkBytes = maxChunkBytes;
+    }
+
+    /**
+     * Decompresses the next chunk.
+     *
+     * @return the chunk's content, or null at the end of the archive
+     * @throws ZipException if the data is not gzip, is corrupt or a chunk exceeds the size limit
+     * @throws EOFException if the input ends inside a chunk
+     */
+    public byte[] next() throws IOException {
+        if (pos == limit && !fill()) {
+            return null;
+        }
+        readHeader();
+        inflater.reset();
+        crc.reset();
+        int length = 0;
+        try {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    if (pos == limit && !fill()) {
+                        throw new EOFException("Archive ends inside a chunk");
+                    }
+                    inflater.setInput(buf, pos, limit - pos);
+                    pos = limit;
+                }
+                if (length == chunk.length) {
+                    if (length >= maxChunkBytes) {
+                        throw new ZipException("Chunk exceeds " + maxChunkBytes + " bytes");
+                    }
+                    chunk = Arrays.copyOf(chunk, (int) Math.min((long) length * 2, maxChunkBytes));
+                }
+                int n = inflater.inflate(chunk, length, chunk.length - length);
+                if (n == 0 && inflater.needsDictionary()) {
+                    throw new ZipException("Corrupt chunk");
+                }
+                length += n;
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Corrupt chunk: " + e.getMessage());
+        }
+        // input handed to the inflater beyond the end of this member belongs to the next one
+        pos = limit - inflater.getRemaining();
+        crc.update(chunk, 0, length);
+
+        if (readInt() != (int) crc.getValue() || readInt() != length) {
+            throw new ZipException("Chunk checksum mismatch");
+        }
+        return Arrays.copyOf(chunk, length);
+    }
+
+    /**
+     * Releases the inflater; the underlying stream is left open.
+     */
+    @Override
+    public void close() {
+        inflater.end();
+    }
+
+    private void readHeader() throws IOException {
+        if (readByte() != 0x1f || readByte() != 0x8b || readByte() != 8) {
+            throw new ZipException("Not in GZIP format");
+        }
+        int flags = readByte();
+        skip(6); // MTIME, XFL, OS
+        if ((flags & FEXTRA) != 0) {
+            skip(readByte() | readByte() << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            skipString();
+        }
+        if ((flags & FCOMMENT) != 0) {
+            skipString();
+        }
+        if ((flags & FHCRC) != 0) {
+            skip(2);
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (readByte() != 0) {
+            // skip to the terminating zero byte
+        }
+    }
+
+    private void skip(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            readByte();
+        }
+    }
+
+    private int readInt() throws IOException {
+        return readByte() | readByte() << 8 | readByte() << 16 | readByte() << 24;
+    }
+
+    private int readByte() throws IOException {
+        if (pos == limit && !fill()) {
+            throw new EOFException("Archive ends inside a chunk");
+        }
+        return buf[pos++] & 0xff;
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        while (n == 0) {
+            n = in.read(buf, 0, buf.length);
+        }
+        pos = 0;
+        limit = Math.max(n, 0);
+        return n > 0;
+    }
+}
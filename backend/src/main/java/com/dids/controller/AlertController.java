@@ -0,0 +1,28 @@
+package com.dids.controller;
+
+import com.dids.dto.AlertTriageRequest;
+import com.dids.dto.AlertTriageResult;
+import com.dids.security.UserPermissions;
+import com.dids.service.AlertTriageService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/alerts")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class AlertController {
+
+    private final AlertTriageService triageService;
+
+    @PostMapping("/triage")
+    @PreAuthorize("hasAuthority('MANAGE_ALERTS')")
+    public ResponseEntity<AlertTriageResult> triage(@Valid @RequestBody AlertTriageRequest request,
+                                                    @AuthenticationPrincipal UserPermissions user) {
+        return ResponseEntity.ok(triageService.triage(request, user));
+    }
+}
@@ -0,0 +1,72 @@
+package com.dids.controller;
+
+import com.dids.archive.ArchiveFormat;
+import com.dids.dto.ArchiveExportRequest;
+import com.dids.dto.ArchiveImportResult;
+import com.dids.service.ArchiveService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/archive")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+@PreAuthorize("hasAuthority('MANAGE_ARCHIVES')")
+public class ArchiveController {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ArchiveService archiveService;
+
+    @Value("${archive.export.timeout-ms:3600000}")
+    private long exportTimeoutMs;
+
+    /**
+     * Streams the selected logs and alerts as a gzip-compressed, chunked NDJSON archive. Runs as
+     * an async request with its own timeout, so long exports don't raise the default for every
+     * other async endpoint.
+     */
+    @GetMapping("/export")
+    public WebAsyncTask<Void> export(
+            @RequestParam(required = false) List<String> collections,
+            @RequestParam(required = false) String deviceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) {
+        ArchiveExportRequest request = new ArchiveExportRequest(collections, deviceId, from, to);
+        archiveService.validate(request);
+        String filename = "dids-archive-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ArchiveFormat.FILE_SUFFIX;
+        response.setContentType(ArchiveFormat.CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            archiveService.export(request, response.getOutputStream());
+            return null;
+        });
+    }
+
+    /**
+     * Loads an archive produced by {@link #export}. When the result is not {@code completed},
+     * post the same archive again with the returned {@code resumeFromChunk}.
+     */
+    @PostMapping(value = "/import", consumes = {ArchiveFormat.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ArchiveImportResult> importArchive(
+            @RequestParam(defaultValue = "0") int resumeFromChunk,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(archiveService.importArchive(request.getInputStream(), resumeFromChunk));
+    }
+}
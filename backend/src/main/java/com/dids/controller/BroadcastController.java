@@ -0,0 +1,37 @@
+package com.dids.controller;
+
+import com.dids.dto.BroadcastRequest;
+import com.dids.dto.BroadcastResponse;
+import com.dids.dto.BroadcastSnapshot;
+import com.dids.security.UserPermissions;
+import com.dids.service.BroadcastCommandService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/terminal/broadcast")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class BroadcastController {
+
+    private final BroadcastCommandService broadcastService;
+
+    @PostMapping
+    @PreAuthorize("hasAuthority('BROADCAST_COMMANDS')")
+    public ResponseEntity<BroadcastResponse> broadcast(@Valid @RequestBody BroadcastRequest request,
+                                                       @AuthenticationPrincipal UserPermissions user) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(broadcastService.startBroadcast(request, user));
+    }
+
+    @GetMapping("/{broadcastId}")
+    @PreAuthorize("hasAuthority('BROADCAST_COMMANDS')")
+    public ResponseEntity<BroadcastSnapshot> getBroadcast(@PathVariable String broadcastId,
+                                                          @AuthenticationPrincipal UserPermissions user) {
+        return ResponseEntity.ok(broadcastService.getSnapshot(broadcastId, user));
+    }
+}
@@ -0,0 +1,116 @@
+package com.dids.controller;
+
+import com.dids.dto.DashboardSnapshot;
+import com.dids.security.UserPermissions;
+import com.dids.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    /**
+     * Aggregated dashboard view. Answers 304 when the client's ETag (or {@code since}) is current,
+     * a delta when {@code since} is recent enough, and a full snapshot otherwise.
+     *
+     * The ETag is weak, since a delta and a full snapshot of the same version differ in bytes, and
+     * covers the projection and the user's permissions, which {@code invalidateUser} can change
+     * without moving the version. For the same reason the {@code since} token carries the permissions
+     * it was issued under; a token from other permissions gets a full snapshot, which drops items
+     * the user can no longer see.
+     */
+    @GetMapping("/snapshot")
+    @PreAuthorize("hasAuthority('VIEW')")
+    public ResponseEntity<DashboardSnapshot> getSnapshot(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) String include,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @AuthenticationPrincipal UserPermissions user) {
+        DashboardService.Projection projection = DashboardService.Projection.parse(include, fields);
+        String scope = user != null ? user.fingerprint() : "-";
+        Long sinceVersion = sinceVersion(since, scope);
+        long version = dashboardService.currentVersion();
+        String etag = etag(version, projection, scope);
+        if (matchesAny(ifNoneMatch, etag) || (sinceVersion != null && sinceVersion == version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
+
+        DashboardSnapshot snapshot = dashboardService.snapshot(sinceVersion, projection, user);
+        snapshot.setSince(snapshot.getVersion() + "." + scope);
+        return ResponseEntity.ok()
+                .eTag(etag(snapshot.getVersion(), projection, scope))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(snapshot);
+    }
+
+    private static String etag(long version, DashboardService.Projection projection, String scope) {
+        return "W/\"" + version + "-" + projection.key() + "-" + scope + "\"";
+    }
+
+    /**
+     * Version of a {@code since} token ("version.scope"), or null when there is none or it was issued
+     * under other permissions. A bare version has no scope to check and gets a full snapshot too.
+     */
+    static Long sinceVersion(String since, String scope) {
+        if (since == null || since.isBlank()) {
+            return null;
+        }
+        int dot = since.indexOf('.');
+        long version;
+        try {
+            version = Long.parseLong(dot < 0 ? since.trim() : since.substring(0, dot));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid since token: " + since);
+        }
+        return dot >= 0 && since.substring(dot + 1).equals(scope) ? version : null;
+    }
+
+    /**
+     * Weak comparison of {@code etag} against an If-None-Match list: {@code *}, or any entry with
+     * the same opaque tag, with or without the {@code W/} prefix. A malformed list matches nothing.
+     */
+    static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        int n = ifNoneMatch.length();
+        int i = 0;
+        while (i < n) {
+            char c = ifNoneMatch.charAt(i);
+            if (c == ' ' || c == '\t' || c == ',') {
+                i++;
+                continue;
+            }
+            if (c == '*') {
+                return true;
+            }
+            if (ifNoneMatch.startsWith("W/", i)) {
+                i += 2;
+            }
+            int close = i < n && ifNoneMatch.charAt(i) == '"' ? ifNoneMatch.indexOf('"', i + 1) : -1;
+            if (close < 0) {
+                return false;
+            }
+            if (close + 1 - i == opaque.length() && ifNoneMatch.startsWith(opaque, i)) {
+                return true;
+            }
+            i = close + 1;
+        }
+        return false;
+    }
+}
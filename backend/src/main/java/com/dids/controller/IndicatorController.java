@@ -0,0 +1,29 @@
+package com.dids.controller;
+
+import com.dids.dto.IndicatorStats;
+import com.dids.service.IndicatorService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/indicators")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class IndicatorController {
+
+    private final IndicatorService indicatorService;
+
+    @GetMapping
+    @PreAuthorize("hasAuthority('VIEW')")
+    public ResponseEntity<IndicatorStats> getStats() {
+        return ResponseEntity.ok(indicatorService.getStats());
+    }
+
+    @PostMapping("/reload")
+    @PreAuthorize("hasAuthority('MANAGE_POLICIES')")
+    public ResponseEntity<IndicatorStats> reload() {
+        return ResponseEntity.ok(indicatorService.reload());
+    }
+}
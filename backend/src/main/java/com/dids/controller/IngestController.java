@@ -0,0 +1,43 @@
+package com.dids.controller;
+
+import com.dids.dto.IngestResponse;
+import com.dids.service.LogIngestionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/ingest")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class IngestController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    // Agents may only write logs for devices they are bound to
+    private static final String DEVICE_INGEST = "hasAuthority('INGEST_LOGS') and principal.canAccessDevice(#deviceId)";
+
+    private final LogIngestionService ingestionService;
+
+    @PostMapping(value = "/syslog", consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @PreAuthorize(DEVICE_INGEST)
+    public ResponseEntity<IngestResponse> ingestSyslog(@RequestBody byte[] body,
+                                                       @RequestHeader("X-Device-Id") String deviceId) {
+        return ResponseEntity.ok(ingestionService.ingestLines(body, deviceId));
+    }
+
+    @PostMapping(value = "/agent", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize(DEVICE_INGEST)
+    public ResponseEntity<IngestResponse> ingestAgentEvent(@RequestBody byte[] body,
+                                                           @RequestHeader("X-Device-Id") String deviceId) {
+        return ResponseEntity.ok(ingestionService.ingestDocument(body, deviceId));
+    }
+
+    @PostMapping(value = "/agent", consumes = NDJSON)
+    @PreAuthorize(DEVICE_INGEST)
+    public ResponseEntity<IngestResponse> ingestAgentEvents(@RequestBody byte[] body,
+                                                            @RequestHeader("X-Device-Id") String deviceId) {
+        return ResponseEntity.ok(ingestionService.ingestLines(body, deviceId));
+    }
+}
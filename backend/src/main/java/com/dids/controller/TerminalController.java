@@ -1,21 +1,36 @@
 package com.dids.controller;
 
+import com.dids.dto.ReplayMessage;
 import com.dids.dto.TerminalMessage;
+import com.dids.security.AuthorizationService;
+import com.dids.service.TerminalReplayService;
 import com.dids.service.TerminalService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
+
 @Controller
 @RequiredArgsConstructor
 public class TerminalController {
 
     private final TerminalService terminalService;
+    private final TerminalReplayService replayService;
+    private final AuthorizationService authorizationService;
 
     @MessageMapping("/terminal")
-    public void handleTerminalMessage(@Payload TerminalMessage message) {
-        terminalService.handleTerminalMessage(message);
+    public void handleTerminalMessage(@Payload TerminalMessage message, Principal principal,
+                                      @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String connectionId) {
+        terminalService.handleTerminalMessage(message, authorizationService.permissionsFor(principal), connectionId);
+    }
+
+    @MessageMapping("/terminal/replay")
+    public void handleReplayMessage(@Payload ReplayMessage message, Principal principal) {
+        replayService.handleReplayMessage(message, authorizationService.permissionsFor(principal));
     }
 }
 
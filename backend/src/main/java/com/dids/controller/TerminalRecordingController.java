@@ -0,0 +1,25 @@
+package com.dids.controller;
+
+import com.dids.dto.RecordingInfo;
+import com.dids.service.TerminalRecordingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/terminal/recordings")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class TerminalRecordingController {
+
+    private final TerminalRecordingService recordingService;
+
+    @GetMapping("/{deviceId}")
+    @PreAuthorize("hasAuthority('VIEW_RECORDINGS') and principal.canAccessDevice(#deviceId)")
+    public ResponseEntity<List<RecordingInfo>> listRecordings(@PathVariable String deviceId) {
+        return ResponseEntity.ok(recordingService.listRecordings(deviceId));
+    }
+}
@@ -0,0 +1,28 @@
+package com.dids.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Selects alerts by id list and/or filter (all given criteria must match) and the status to move
+ * them to. At least one criterion is required.
+ */
+@Data
+public class AlertTriageRequest {
+    private List<String> ids;
+    private String deviceId;
+    private String type;
+    private String severity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @NotBlank(message = "Target status is required")
+    @Pattern(regexp = "open|resolved", message = "Status must be open or resolved")
+    private String status;
+
+    private String note;
+}
@@ -0,0 +1,24 @@
+package com.dids.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertTriageResult {
+    private String status;
+    private int matched;
+    private long modified;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> alertIds; // returned to the caller only, not published
+    private List<String> deviceIds;
+    private long dashboardVersion; // a dashboard snapshot at or after this version reflects the change
+    private String triagedBy;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,18 @@
+package com.dids.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveExportRequest {
+    private List<String> collections;
+    private String deviceId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
@@ -0,0 +1,22 @@
+package com.dids.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of an archive import. When {@code completed} is false, re-posting the same archive with
+ * {@code resumeFromChunk} continues after the last chunk that was fully written.
+ */
+@Data
+@NoArgsConstructor
+public class ArchiveImportResult {
+    private boolean completed;
+    private int chunks;
+    private int skippedChunks;
+    private Map<String, Long> inserted;
+    private long duplicates;
+    private int resumeFromChunk;
+    private String error;
+}
@@ -0,0 +1,15 @@
+package com.dids.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BroadcastGroup {
+    private String output;
+    private int exitCode;
+    private int count;
+    private List<String> devices; // sample of device names, capped
+}
@@ -0,0 +1,18 @@
+package com.dids.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BroadcastRequest {
+    private List<String> deviceIds;
+
+    private String policyId; // run on the policy's deployedDevices
+
+    @NotBlank(message = "Command is required")
+    private String command;
+
+    private Integer timeoutSeconds;
+}
@@ -0,0 +1,12 @@
+package com.dids.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BroadcastResponse {
+    private String broadcastId;
+    private String topic;
+    private int deviceCount;
+}
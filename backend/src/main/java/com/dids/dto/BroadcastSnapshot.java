@@ -0,0 +1,17 @@
+package com.dids.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BroadcastSnapshot {
+    private String broadcastId;
+    private String command;
+    private int total;
+    private int completed;
+    private boolean done;
+    private List<BroadcastGroup> groups;
+}
@@ -0,0 +1,12 @@
+package com.dids.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CommandResult {
+    private int exitCode;
+    private String output;
+    private boolean timedOut;
+}
@@ -0,0 +1,29 @@
+package com.dids.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard view at {@code version}. A full snapshot carries every requested section; a delta
+ * ({@code full == false}) carries only the items changed since the client's version, plus the
+ * ids removed from each section. Sections that were not requested are omitted. {@code since} is the
+ * token to send back for the next delta.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardSnapshot {
+    private long version;
+    private String since;
+    private boolean full;
+    private DashboardStats stats;
+    private List<Object> devices;
+    private List<Object> alerts;
+    private List<Object> logs;
+    private List<Object> policies;
+    private Map<String, List<String>> removed;
+}
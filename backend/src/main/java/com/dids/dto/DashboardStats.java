@@ -0,0 +1,17 @@
+package com.dids.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardStats {
+    private int totalDevices;
+    private int activeDevices;
+    private int openAlerts;
+    private int criticalAlerts;
+    private int totalPolicies;
+    private int activePolicies;
+}
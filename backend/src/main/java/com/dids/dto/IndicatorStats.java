@@ -0,0 +1,18 @@
+package com.dids.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndicatorStats {
+    private int ipRanges;
+    private int patterns;
+    private int hashes;
+    private int rejectedLines;
+    private LocalDateTime loadedAt;
+}
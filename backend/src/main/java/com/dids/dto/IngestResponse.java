@@ -0,0 +1,12 @@
+package com.dids.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class IngestResponse {
+    private int accepted;
+    private int rejected;
+    private int alerts;
+}
@@ -0,0 +1,28 @@
+package com.dids.dto;
+
+import com.dids.model.Policy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PolicySummary {
+    private String id;
+    private String name;
+    private String description;
+    private boolean active;
+    private int ruleCount;
+    private int deployedDeviceCount;
+
+    public static PolicySummary of(Policy policy) {
+        return new PolicySummary(
+                policy.getId(),
+                policy.getName(),
+                policy.getDescription(),
+                Boolean.TRUE.equals(policy.getActive()),
+                policy.getRules() == null ? 0 : policy.getRules().size(),
+                policy.getDeployedDevices() == null ? 0 : policy.getDeployedDevices().size());
+    }
+}
@@ -0,0 +1,13 @@
+package com.dids.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RecordingInfo {
+    private String deviceId;
+    private String recordingId;
+    private long startedAt;
+    private long sizeBytes;
+}
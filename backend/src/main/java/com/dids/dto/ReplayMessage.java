@@ -0,0 +1,16 @@
+package com.dids.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayMessage {
+    private String deviceId;
+    private String recordingId;
+    private Double speed; // 1.0 = real time, higher replays faster
+    private Long offsetMillis; // position to start from, relative to the recording start
+    private String type; // "start", "seek", "stop"
+}
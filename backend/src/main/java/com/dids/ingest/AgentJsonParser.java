@@ -0,0 +1,378 @@
+package com.dids.ingest;
+
+import static com.dids.ingest.ByteScan.parseInt;
+import static com.dids.ingest.ByteScan.parseLong;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass scanner for agent JSON payloads, including Windows-event-style documents
+ * (EventID, Computer, TargetUserName, IpAddress, ...). Keys are interned and matched without
+ * building a tree; nested objects are flattened, so "EventData.TargetUserName" and
+ * "TimeCreated.SystemTime" are picked up like top-level fields. Unknown keys are skipped.
+ */
+final class AgentJsonParser {
+
+    private static final int MAX_DEPTH = 16;
+
+    private final SymbolTable symbols;
+    private final StringBuilder unescaped = new StringBuilder();
+    private boolean stringEscaped;
+    private boolean userFromTarget;
+
+    AgentJsonParser(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    boolean parse(byte[] b, int off, int len, ParsedEvent e) {
+        int end = off + len;
+        int p = skipWs(b, off, end);
+        if (p >= end || b[p] != '{') {
+            return false;
+        }
+        userFromTarget = false;
+        if (parseObject(b, p, end, e, 0) < 0) {
+            return false;
+        }
+
+        if (e.eventCode >= 0) {
+            if (e.event == null) {
+                e.event = Vocabulary.windowsEvent(e.eventCode);
+            }
+            if (e.level == null) {
+                e.level = Vocabulary.windowsLevel(e.eventCode);
+            }
+        }
+        if (e.event == null) {
+            e.event = Vocabulary.AGENT_EVENT;
+        }
+        if (e.level == null) {
+            e.level = Vocabulary.INFO;
+        }
+        return true;
+    }
+
+    private int parseObject(byte[] b, int p, int end, ParsedEvent e, int depth) {
+        if (depth > MAX_DEPTH) {
+            return -1;
+        }
+        p = skipWs(b, p + 1, end);
+        if (p < end && b[p] == '}') {
+            return p + 1;
+        }
+        while (true) {
+            if (p >= end || b[p] != '"') {
+                return -1;
+            }
+            int keyEnd = stringEnd(b, p + 1, end);
+            if (keyEnd < 0) {
+                return -1;
+            }
+            String key = symbols.intern(b, p + 1, keyEnd - p - 1);
+            p = skipWs(b, keyEnd + 1, end);
+            if (p >= end || b[p] != ':') {
+                return -1;
+            }
+            p = skipWs(b, p + 1, end);
+            if (p >= end) {
+                return -1;
+            }
+
+            byte c = b[p];
+            if (c == '{') {
+                p = parseObject(b, p, end, e, depth + 1);
+            } else if (c == '[') {
+                p = skipArray(b, p, end, e, depth + 1);
+            } else if (c == '"') {
+                int valueEnd = stringEnd(b, p + 1, end);
+                if (valueEnd < 0) {
+                    return -1;
+                }
+                assign(key, b, p + 1, valueEnd, true, e);
+                p = valueEnd + 1;
+            } else {
+                int valueEnd = scalarEnd(b, p, end);
+                stringEscaped = false;
+                assign(key, b, p, valueEnd, false, e);
+                p = valueEnd;
+            }
+            if (p < 0) {
+                return -1;
+            }
+
+            p = skipWs(b, p, end);
+            if (p >= end) {
+                return -1;
+            }
+            if (b[p] == '}') {
+                return p + 1;
+            }
+            if (b[p] != ',') {
+                return -1;
+            }
+            p = skipWs(b, p + 1, end);
+        }
+    }
+
+    private int skipArray(byte[] b, int p, int end, ParsedEvent e, int depth) {
+        if (depth > MAX_DEPTH) {
+            return -1;
+        }
+        p = skipWs(b, p + 1, end);
+        if (p < end && b[p] == ']') {
+            return p + 1;
+        }
+        while (p < end) {
+            byte c = b[p];
+            if (c == '{') {
+                p = parseObject(b, p, end, e, depth + 1);
+            } else if (c == '[') {
+                p = skipArray(b, p, end, e, depth + 1);
+            } else if (c == '"') {
+                int valueEnd = stringEnd(b, p + 1, end);
+                p = valueEnd < 0 ? -1 : valueEnd + 1;
+            } else {
+                p = scalarEnd(b, p, end);
+            }
+            if (p < 0) {
+                return -1;
+            }
+            p = skipWs(b, p, end);
+            if (p >= end) {
+                return -1;
+            }
+            if (b[p] == ']') {
+                return p + 1;
+            }
+            if (b[p] != ',') {
+                return -1;
+            }
+            p = skipWs(b, p + 1, end);
+        }
+        return -1;
+    }
+
+    private void assign(String key, byte[] b, int s, int t, boolean string, ParsedEvent e) {
+        if (!string && t - s == 4 && b[s] == 'n') {
+            return; // null
+        }
+        switch (key) {
+            case "EventID":
+            case "EventId":
+            case "eventId":
+            case "event_id":
+                e.eventCode = parseInt(b, s, t);
+                break;
+            case "Computer":
+            case "host":
+            case "hostname":
+                e.host = text(b, s, t);
+                break;
+            case "TargetUserName":
+                e.user = text(b, s, t);
+                userFromTarget = true;
+                break;
+            case "SubjectUserName":
+            case "user":
+            case "username":
+                if (!userFromTarget) {
+                    e.user = text(b, s, t);
+                }
+                break;
+            case "IpAddress":
+            case "ip":
+            case "src_ip":
+            case "sourceIp":
+                // Windows uses "-" when there is no remote address
+                e.sourceIp = t - s == 1 && b[s] == '-' ? null : text(b, s, t);
+                break;
+            case "Level":
+            case "level":
+                e.level = levelFromLevel(b, s, t);
+                break;
+            case "severity":
+                e.level = levelFromSeverity(b, s, t, e);
+                break;
+            case "Message":
+            case "message":
+            case "msg":
+                e.message = string ? message(b, s, t) : new String(b, s, t - s, StandardCharsets.US_ASCII);
+                break;
+            case "TimeCreated":
+            case "SystemTime":
+            case "timestamp":
+            case "@timestamp":
+            case "time":
+                e.timestamp = string ? ByteScan.parseIsoTimestamp(b, s, t) : epochNumber(b, s, t);
+                break;
+            case "event":
+            case "EventName":
+            case "action":
+                e.event = text(b, s, t);
+                break;
+            case "Channel":
+            case "ProviderName":
+            case "program":
+            case "source":
+                if (e.program == null) {
+                    e.program = text(b, s, t);
+                }
+                break;
+            case "deviceId":
+            case "device_id":
+                e.deviceId = text(b, s, t);
+                break;
+            case "ProcessId":
+            case "pid":
+                e.pid = parseInt(b, s, t);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Short, repetitive values: interned unless they contain escapes.
+     */
+    private String text(byte[] b, int s, int t) {
+        return stringEscaped ? unescape(b, s, t) : symbols.intern(b, s, t - s);
+    }
+
+    private String message(byte[] b, int s, int t) {
+        return stringEscaped ? unescape(b, s, t) : new String(b, s, t - s, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Windows event level, numeric or quoted ("2"), otherwise a level name.
+     */
+    private static String levelFromLevel(byte[] b, int s, int t) {
+        int level = parseInt(b, s, t);
+        return level >= 0 ? levelFromWindows(level) : levelFromName(b, s, t);
+    }
+
+    /**
+     * Syslog severity (0 emergency .. 7 debug), numeric or quoted, otherwise a level name.
+     */
+    private static String levelFromSeverity(byte[] b, int s, int t, ParsedEvent e) {
+        int severity = parseInt(b, s, t);
+        if (severity < 0 || severity > 7) {
+            return levelFromName(b, s, t);
+        }
+        e.severity = severity;
+        return Vocabulary.levelForSeverity(severity);
+    }
+
+    private static String levelFromName(byte[] b, int s, int t) {
+        if (t - s < 3) {
+            return Vocabulary.INFO;
+        }
+        int c0 = b[s] | 0x20;
+        int c1 = b[s + 1] | 0x20;
+        if ((c0 == 'e' && c1 == 'r') || (c0 == 'c' && c1 == 'r') || (c0 == 'f' && c1 == 'a')
+                || (c0 == 'a' && c1 == 'l') || (c0 == 'e' && c1 == 'm')) {
+            return Vocabulary.ERROR;
+        }
+        return c0 == 'w' && c1 == 'a' ? Vocabulary.WARNING : Vocabulary.INFO;
+    }
+
+    private static String levelFromWindows(int level) {
+        // 1 critical, 2 error, 3 warning, 4 information, 5 verbose
+        if (level == 1 || level == 2) {
+            return Vocabulary.ERROR;
+        }
+        return level == 3 ? Vocabulary.WARNING : Vocabulary.INFO;
+    }
+
+    private static long epochNumber(byte[] b, int s, int t) {
+        int dot = ByteScan.indexOf(b, s, t, (byte) '.');
+        long value = parseLong(b, s, dot < 0 ? t : dot);
+        if (value < 0) {
+            return ByteScan.NO_TIME;
+        }
+        return value > 100_000_000_000L ? value : value * 1000;
+    }
+
+    private int stringEnd(byte[] b, int from, int end) {
+        stringEscaped = false;
+        for (int i = from; i < end; i++) {
+            byte c = b[i];
+            if (c == '\\') {
+                stringEscaped = true;
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int scalarEnd(byte[] b, int p, int end) {
+        while (p < end) {
+            byte c = b[p];
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                break;
+            }
+            p++;
+        }
+        return p;
+    }
+
+    private static int skipWs(byte[] b, int p, int end) {
+        while (p < end && (b[p] == ' ' || b[p] == '\t' || b[p] == '\n' || b[p] == '\r')) {
+            p++;
+        }
+        return p;
+    }
+
+    private String unescape(byte[] b, int s, int t) {
+        StringBuilder sb = unescaped;
+        sb.setLength(0);
+        int run = s;
+        for (int i = s; i < t; i++) {
+            if (b[i] != '\\' || i + 1 >= t) {
+                continue;
+            }
+            if (i > run) {
+                sb.append(new String(b, run, i - run, StandardCharsets.UTF_8));
+            }
+            byte c = b[++i];
+            switch (c) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    int cp = i + 4 < t ? hex4(b, i + 1) : -1;
+                    if (cp < 0) {
+                        sb.append("\\u"); // malformed escape: keep it as written
+                    } else {
+                        sb.append((char) cp);
+                        i += 4;
+                    }
+                    break;
+                default: sb.append((char) c);
+            }
+            run = i + 1;
+        }
+        if (t > run) {
+            sb.append(new String(b, run, t - run, StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the value of four hex digits at {@code from}, or -1 if any is not a hex digit
+     */
+    private static int hex4(byte[] b, int from) {
+        int value = 0;
+        for (int k = 0; k < 4; k++) {
+            int digit = Character.digit(b[from + k], 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+}
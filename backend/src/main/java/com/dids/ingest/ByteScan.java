@@ -0,0 +1,159 @@
+package com.dids.ingest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Allocation-free scanning helpers over UTF-8/ASCII byte ranges.
+ */
+final class ByteScan {
+
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    private ByteScan() {
+    }
+
+    static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static boolean startsWith(byte[] b, int from, int end, byte[] prefix) {
+        if (end - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (b[from + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int indexOf(byte[] b, int from, int end, byte[] needle) {
+        int last = end - needle.length;
+        byte first = needle[0];
+        for (int i = from; i <= last; i++) {
+            if (b[i] == first && startsWith(b, i, end, needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int indexOf(byte[] b, int from, int end, byte c) {
+        for (int i = from; i < end; i++) {
+            if (b[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int skipSpaces(byte[] b, int from, int end) {
+        while (from < end && (b[from] == ' ' || b[from] == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * End of the token starting at {@code from}: the next space, tab or {@code end}.
+     */
+    static int tokenEnd(byte[] b, int from, int end) {
+        while (from < end && b[from] != ' ' && b[from] != '\t') {
+            from++;
+        }
+        return from;
+    }
+
+    static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Parses an unsigned decimal, or returns -1 if the range is empty, non-numeric or too long.
+     */
+    static int parseInt(byte[] b, int from, int end) {
+        if (from >= end || end - from > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < end; i++) {
+            if (!isDigit(b[i])) {
+                return -1;
+            }
+            value = value * 10 + (b[i] - '0');
+        }
+        return value;
+    }
+
+    static long parseLong(byte[] b, int from, int end) {
+        if (from >= end || end - from > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < end; i++) {
+            if (!isDigit(b[i])) {
+                return -1;
+            }
+            value = value * 10 + (b[i] - '0');
+        }
+        return value;
+    }
+
+    static int digits(byte[] b, int at, int count, int end) {
+        return at + count <= end ? parseInt(b, at, at + count) : -1;
+    }
+
+    /**
+     * Parses an RFC 3339 / ISO 8601 timestamp such as {@code 2024-03-01T12:00:00.123+02:00}.
+     * A space is accepted in place of 'T'; a missing zone means UTC.
+     *
+     * @return epoch millis, or {@link #NO_TIME}
+     */
+    static long parseIsoTimestamp(byte[] b, int from, int end) {
+        int year = digits(b, from, 4, end);
+        int month = digits(b, from + 5, 2, end);
+        int day = digits(b, from + 8, 2, end);
+        int hour = digits(b, from + 11, 2, end);
+        int minute = digits(b, from + 14, 2, end);
+        int second = digits(b, from + 17, 2, end);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 60
+                || b[from + 4] != '-' || b[from + 7] != '-' || (b[from + 10] != 'T' && b[from + 10] != ' ')) {
+            return NO_TIME;
+        }
+        int p = from + 19;
+        int millis = 0;
+        if (p < end && b[p] == '.') {
+            p++;
+            int scale = 100;
+            while (p < end && isDigit(b[p])) {
+                millis += (b[p] - '0') * scale;
+                scale /= 10;
+                p++;
+            }
+        }
+        int offsetSeconds = 0;
+        if (p < end && (b[p] == '+' || b[p] == '-')) {
+            int oh = digits(b, p + 1, 2, end);
+            int om = p + 3 < end && b[p + 3] == ':' ? digits(b, p + 4, 2, end) : digits(b, p + 3, 2, end);
+            if (oh >= 0) {
+                offsetSeconds = (oh * 3600 + Math.max(om, 0) * 60) * (b[p] == '-' ? -1 : 1);
+            }
+        }
+        return epochMillis(year, month, day, hour, minute, second, millis, offsetSeconds);
+    }
+
+    static long epochMillis(int year, int month, int day, int hour, int minute, int second,
+                            int millis, int offsetSeconds) {
+        // Days from civil (H. Hinnant), valid for the proleptic Gregorian calendar
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        long days = (long) era * 146097 + doe - 719468;
+        long seconds = days * 86400 + hour * 3600L + minute * 60L + second - offsetSeconds;
+        return seconds * 1000 + millis;
+    }
+}
@@ -0,0 +1,78 @@
+package com.dids.ingest;
+
+import com.dids.model.Log;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Entry point for parsing raw device payloads: JSON objects go to the agent parser, everything
+ * else is treated as syslog. One instance owns its symbol table and result object and is meant
+ * to be confined to a single thread.
+ */
+public final class LogParser {
+
+    private final SymbolTable symbols;
+    private final SyslogParser syslog;
+    private final AgentJsonParser json;
+    private final ParsedEvent event = new ParsedEvent();
+
+    public LogParser(int maxSymbols) {
+        this.symbols = new SymbolTable(maxSymbols);
+        for (String word : Vocabulary.ALL) {
+            symbols.seed(word);
+        }
+        this.syslog = new SyslogParser(symbols);
+        this.json = new AgentJsonParser(symbols);
+        setDefaultYear(LocalDateTime.now(ZoneOffset.UTC).getYear());
+    }
+
+    public void setDefaultYear(int year) {
+        syslog.setDefaultYear(year);
+    }
+
+    /**
+     * Parses one event from {@code b[off, off+len)}.
+     *
+     * @return the parsed event (reused by the next call), or null if the payload is not understood
+     */
+    public ParsedEvent parse(byte[] b, int off, int len) {
+        event.reset();
+        int p = off;
+        int end = off + len;
+        while (p < end && (b[p] == ' ' || b[p] == '\t')) {
+            p++;
+        }
+        if (p >= end) {
+            return null;
+        }
+        boolean ok = b[p] == '{'
+                ? json.parse(b, p, end - p, event)
+                : syslog.parse(b, p, end - p, event);
+        return ok ? event : null;
+    }
+
+    /**
+     * Copies a parsed event into a new {@link Log}. The transport-level {@code deviceId} wins over one
+     * named in the payload, and {@code receivedAt} stands in for a missing timestamp.
+     */
+    public static Log toLog(ParsedEvent e, String deviceId, String deviceName, long receivedAt) {
+        long millis = e.hasTimestamp() ? e.getTimestamp() : receivedAt;
+        Log log = new Log();
+        log.setDeviceId(deviceId != null ? deviceId : e.getDeviceId());
+        log.setDeviceName(deviceName);
+        log.setEvent(e.getEvent());
+        log.setMessage(e.getMessage());
+        log.setLevel(e.getLevel());
+        log.setTimestamp(LocalDateTime.ofEpochSecond(
+                Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC));
+        log.setHost(e.getHost());
+        log.setProgram(e.getProgram());
+        log.setPid(e.getPid() >= 0 ? e.getPid() : null);
+        log.setUser(e.getUser());
+        log.setTargetUser(e.getTargetUser());
+        log.setSourceIp(e.getSourceIp());
+        log.setEventCode(e.getEventCode() >= 0 ? e.getEventCode() : null);
+        return log;
+    }
+}
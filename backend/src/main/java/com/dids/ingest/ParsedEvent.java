@@ -0,0 +1,51 @@
+package com.dids.ingest;
+
+import lombok.Getter;
+
+/**
+ * Mutable result of parsing one raw event. A {@link LogParser} reuses a single instance, so
+ * callers must copy what they need (see {@link LogParser#toLog}) before parsing the next line.
+ */
+@Getter
+public final class ParsedEvent {
+
+    long timestamp;
+    int facility;
+    int severity;
+    int pid;
+    int eventCode;
+    String deviceId;
+    String host;
+    String program;
+    String event;
+    String level;
+    String user;
+    String targetUser;
+    String sourceIp;
+    String message;
+
+    ParsedEvent() {
+        reset();
+    }
+
+    void reset() {
+        timestamp = Long.MIN_VALUE;
+        facility = -1;
+        severity = -1;
+        pid = -1;
+        eventCode = -1;
+        deviceId = null;
+        host = null;
+        program = null;
+        event = null;
+        level = null;
+        user = null;
+        targetUser = null;
+        sourceIp = null;
+        message = null;
+    }
+
+    public boolean hasTimestamp() {
+        return timestamp != Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,69 @@
+package com.dids.ingest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interns byte ranges (field names, hosts, programs, users, ...) as canonical Strings so repeated
+ * values cost a hash probe instead of a new String per event. The table is fixed size and never
+ * resizes; once full, unseen values are still returned but not remembered.
+ *
+ * Not thread-safe: each {@link LogParser} owns its own table.
+ */
+final class SymbolTable {
+
+    private final byte[][] keys;
+    private final String[] values;
+    private final int[] hashes;
+    private final int mask;
+    private final int maxEntries;
+    private int size;
+
+    SymbolTable(int maxEntries) {
+        int capacity = Integer.highestOneBit(Math.max(16, maxEntries * 2 - 1)) << 1;
+        this.keys = new byte[capacity][];
+        this.values = new String[capacity];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+        this.maxEntries = Math.min(maxEntries, capacity / 2);
+    }
+
+    String intern(byte[] buf, int off, int len) {
+        return intern(buf, off, len, null);
+    }
+
+    /**
+     * Pre-registers a constant so parsed values share the same instance.
+     */
+    void seed(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        intern(bytes, 0, bytes.length, value);
+    }
+
+    private String intern(byte[] buf, int off, int len, String instance) {
+        int h = hash(buf, off, len);
+        int i = h & mask;
+        while (values[i] != null) {
+            if (hashes[i] == h && Arrays.equals(keys[i], 0, keys[i].length, buf, off, off + len)) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        String value = instance != null ? instance : new String(buf, off, len, StandardCharsets.UTF_8);
+        if (size < maxEntries) {
+            keys[i] = Arrays.copyOfRange(buf, off, off + len);
+            values[i] = value;
+            hashes[i] = h;
+            size++;
+        }
+        return value;
+    }
+
+    private static int hash(byte[] buf, int off, int len) {
+        int h = 0x811C9DC5;
+        for (int i = off; i < off + len; i++) {
+            h = (h ^ buf[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,353 @@
+package com.dids.ingest;
+
+import static com.dids.ingest.ByteScan.ascii;
+import static com.dids.ingest.ByteScan.indexOf;
+import static com.dids.ingest.ByteScan.isDigit;
+import static com.dids.ingest.ByteScan.parseInt;
+import static com.dids.ingest.ByteScan.skipSpaces;
+import static com.dids.ingest.ByteScan.startsWith;
+import static com.dids.ingest.ByteScan.tokenEnd;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses RFC 5424 and RFC 3164 (BSD) syslog lines straight from a byte range, then classifies
+ * the message of well-known programs (sshd, sudo, kernel) into typed events.
+ */
+final class SyslogParser {
+
+    private static final byte[] MONTHS = ascii("JanFebMarAprMayJunJulAugSepOctNovDec");
+
+    private static final byte[] FAILED = ascii("Failed ");
+    private static final byte[] ACCEPTED = ascii("Accepted ");
+    private static final byte[] INVALID_USER = ascii("Invalid user ");
+    private static final byte[] FOR = ascii(" for ");
+    private static final byte[] FOR_INVALID_USER = ascii("invalid user ");
+    private static final byte[] FROM = ascii(" from ");
+    private static final byte[] AUTH_FAILURE = ascii("authentication failure");
+    private static final byte[] RHOST = ascii("rhost=");
+    private static final byte[] USER_EQ = ascii(" user=");
+    private static final byte[] SUDO_SEPARATOR = ascii(" : ");
+    private static final byte[] SUDO_USER = ascii("USER=");
+    private static final byte[] SUDO_COMMAND = ascii("COMMAND=");
+    private static final byte[] INCORRECT_PASSWORD = ascii("incorrect password attempt");
+    private static final byte[] NOT_IN_SUDOERS = ascii("NOT in sudoers");
+    private static final byte[] SRC = ascii("SRC=");
+    private static final byte[] SEGFAULT = ascii("segfault");
+    private static final byte[] OUT_OF_MEMORY = ascii("Out of memory");
+
+    private final SymbolTable symbols;
+    private int defaultYear = 1970;
+    private int msgStart;
+    private int msgEnd;
+
+    SyslogParser(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Year assumed for RFC 3164 timestamps, which don't carry one.
+     */
+    void setDefaultYear(int defaultYear) {
+        this.defaultYear = defaultYear;
+    }
+
+    boolean parse(byte[] b, int off, int len, ParsedEvent e) {
+        int p = off;
+        int end = off + len;
+        while (end > p && (b[end - 1] == '\n' || b[end - 1] == '\r')) {
+            end--;
+        }
+        if (p >= end) {
+            return false;
+        }
+
+        if (b[p] == '<') {
+            int close = indexOf(b, p + 1, Math.min(end, p + 5), (byte) '>');
+            int pri = close > 0 ? parseInt(b, p + 1, close) : -1;
+            if (pri < 0 || pri > 191) {
+                return false;
+            }
+            e.facility = pri >> 3;
+            e.severity = pri & 7;
+            p = close + 1;
+        }
+
+        boolean ok = p + 1 < end && isDigit(b[p]) && b[p + 1] == ' '
+                ? parse5424(b, p + 2, end, e)
+                : parse3164(b, p, end, e);
+        if (!ok) {
+            return false;
+        }
+
+        e.level = e.severity < 0 ? Vocabulary.INFO : Vocabulary.levelForSeverity(e.severity);
+        classify(b, e);
+        return true;
+    }
+
+    private boolean parse5424(byte[] b, int p, int end, ParsedEvent e) {
+        int t = tokenEnd(b, p, end);
+        if (!isNil(b, p, t)) {
+            e.timestamp = ByteScan.parseIsoTimestamp(b, p, t);
+        }
+        p = skipSpaces(b, t, end);
+
+        t = tokenEnd(b, p, end);
+        e.host = nilOrIntern(b, p, t);
+        p = skipSpaces(b, t, end);
+
+        t = tokenEnd(b, p, end);
+        e.program = nilOrIntern(b, p, t);
+        p = skipSpaces(b, t, end);
+
+        t = tokenEnd(b, p, end);
+        e.pid = parseInt(b, p, t);
+        p = skipSpaces(b, t, end);
+
+        t = tokenEnd(b, p, end); // MSGID
+        p = skipSpaces(b, t, end);
+
+        p = skipStructuredData(b, p, end);
+        if (p < 0) {
+            return false;
+        }
+        p = skipSpaces(b, p, end);
+        // Optional UTF-8 BOM before MSG
+        if (p + 3 <= end && b[p] == (byte) 0xEF && b[p + 1] == (byte) 0xBB && b[p + 2] == (byte) 0xBF) {
+            p += 3;
+        }
+        setMessage(b, p, end, e);
+        return true;
+    }
+
+    private boolean parse3164(byte[] b, int p, int end, ParsedEvent e) {
+        p = skipSpaces(b, p, end);
+        long ts = parseBsdTimestamp(b, p, end);
+        if (ts != ByteScan.NO_TIME) {
+            e.timestamp = ts;
+            p = skipSpaces(b, p + 15, end);
+        } else if (p + 19 <= end && b[p + 4] == '-' && b[p + 10] == 'T') {
+            // rsyslog's high-precision format puts an RFC 3339 timestamp here
+            int t = tokenEnd(b, p, end);
+            e.timestamp = ByteScan.parseIsoTimestamp(b, p, t);
+            p = skipSpaces(b, t, end);
+        }
+
+        // HOSTNAME is optional in practice: a token that ends in ':' or carries "[pid]" is the TAG
+        int t = tokenEnd(b, p, end);
+        if (e.hasTimestamp() && t > p && t < end && b[t - 1] != ':' && indexOf(b, p, t, (byte) '[') < 0) {
+            e.host = symbols.intern(b, p, t - p);
+            p = skipSpaces(b, t, end);
+        }
+
+        int tagEnd = p;
+        while (tagEnd < end && b[tagEnd] != '[' && b[tagEnd] != ':' && b[tagEnd] != ' ') {
+            tagEnd++;
+        }
+        if (tagEnd < end && tagEnd > p && (b[tagEnd] == '[' || b[tagEnd] == ':')) {
+            e.program = symbols.intern(b, p, tagEnd - p);
+            p = tagEnd;
+            if (b[p] == '[') {
+                int close = indexOf(b, p + 1, end, (byte) ']');
+                if (close > 0) {
+                    e.pid = parseInt(b, p + 1, close);
+                    p = close + 1;
+                }
+            }
+            if (p < end && b[p] == ':') {
+                p++;
+            }
+            p = skipSpaces(b, p, end);
+        }
+        setMessage(b, p, end, e);
+        return true;
+    }
+
+    private long parseBsdTimestamp(byte[] b, int p, int end) {
+        // "Mmm dd hh:mm:ss", day space padded
+        if (p + 15 > end || b[p + 3] != ' ' || b[p + 6] != ' ' || b[p + 9] != ':' || b[p + 12] != ':') {
+            return ByteScan.NO_TIME;
+        }
+        int month = -1;
+        for (int m = 0; m < 12; m++) {
+            if (MONTHS[m * 3] == b[p] && MONTHS[m * 3 + 1] == b[p + 1] && MONTHS[m * 3 + 2] == b[p + 2]) {
+                month = m + 1;
+                break;
+            }
+        }
+        int day = b[p + 4] == ' ' ? parseInt(b, p + 5, p + 6) : parseInt(b, p + 4, p + 6);
+        int hour = parseInt(b, p + 7, p + 9);
+        int minute = parseInt(b, p + 10, p + 12);
+        int second = parseInt(b, p + 13, p + 15);
+        if (month < 0 || day < 1 || hour < 0 || minute < 0 || second < 0) {
+            return ByteScan.NO_TIME;
+        }
+        return ByteScan.epochMillis(defaultYear, month, day, hour, minute, second, 0, 0);
+    }
+
+    private static int skipStructuredData(byte[] b, int p, int end) {
+        if (p < end && b[p] == '-') {
+            return p + 1;
+        }
+        while (p < end && b[p] == '[') {
+            boolean quoted = false;
+            p++;
+            while (p < end) {
+                byte c = b[p];
+                if (quoted && c == '\\') {
+                    p += 2;
+                    continue;
+                }
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == ']' && !quoted) {
+                    break;
+                }
+                p++;
+            }
+            if (p >= end) {
+                return -1;
+            }
+            p++;
+        }
+        return p;
+    }
+
+    private void classify(byte[] b, ParsedEvent e) {
+        String program = e.program;
+        if (program == null) {
+            e.event = Vocabulary.SYSLOG;
+            return;
+        }
+        switch (program) {
+            case "sshd":
+                classifySshd(b, msgStart, msgEnd, e);
+                break;
+            case "sudo":
+                classifySudo(b, msgStart, msgEnd, e);
+                break;
+            case "kernel":
+                classifyKernel(b, msgStart, msgEnd, e);
+                break;
+            default:
+                e.event = program;
+        }
+    }
+
+    private void classifySshd(byte[] m, int from, int end, ParsedEvent e) {
+        e.event = Vocabulary.SSHD;
+        if (startsWith(m, from, end, FAILED)) {
+            e.event = Vocabulary.SSH_LOGIN_FAILED;
+            e.level = Vocabulary.WARNING;
+            extractUserAndSource(m, from, end, e);
+        } else if (startsWith(m, from, end, ACCEPTED)) {
+            e.event = Vocabulary.SSH_LOGIN_SUCCESS;
+            extractUserAndSource(m, from, end, e);
+        } else if (startsWith(m, from, end, INVALID_USER)) {
+            e.event = Vocabulary.SSH_INVALID_USER;
+            e.level = Vocabulary.WARNING;
+            int u = from + INVALID_USER.length;
+            int ue = tokenEnd(m, u, end);
+            e.user = internToken(m, u, ue);
+            extractFrom(m, ue, end, e);
+        } else if (indexOf(m, from, end, AUTH_FAILURE) >= 0) {
+            e.event = Vocabulary.SSH_AUTH_FAILURE;
+            e.level = Vocabulary.WARNING;
+            extractPamFields(m, from, end, e);
+        }
+    }
+
+    private void classifySudo(byte[] m, int from, int end, ParsedEvent e) {
+        e.event = Vocabulary.SUDO;
+        int sep = indexOf(m, from, end, SUDO_SEPARATOR);
+        if (sep > from) {
+            e.user = internToken(m, skipSpaces(m, from, sep), sep);
+        }
+        if (indexOf(m, from, end, NOT_IN_SUDOERS) >= 0) {
+            e.event = Vocabulary.SUDO_DENIED;
+            e.level = Vocabulary.WARNING;
+        } else if (indexOf(m, from, end, INCORRECT_PASSWORD) >= 0 || indexOf(m, from, end, AUTH_FAILURE) >= 0) {
+            e.event = Vocabulary.SUDO_AUTH_FAILURE;
+            e.level = Vocabulary.WARNING;
+            if (e.user == null) {
+                extractPamFields(m, from, end, e);
+            }
+        } else if (indexOf(m, from, end, SUDO_COMMAND) >= 0) {
+            e.event = Vocabulary.SUDO_COMMAND;
+            int target = indexOf(m, from, end, SUDO_USER);
+            if (target >= 0) {
+                int s = target + SUDO_USER.length;
+                e.targetUser = internToken(m, s, tokenEnd(m, s, end));
+            }
+        }
+    }
+
+    private void classifyKernel(byte[] m, int from, int end, ParsedEvent e) {
+        e.event = Vocabulary.KERNEL;
+        int src = indexOf(m, from, end, SRC);
+        if (src >= 0) {
+            e.event = Vocabulary.KERNEL_FIREWALL;
+            int s = src + SRC.length;
+            e.sourceIp = internToken(m, s, tokenEnd(m, s, end));
+        } else if (indexOf(m, from, end, SEGFAULT) >= 0) {
+            e.event = Vocabulary.KERNEL_SEGFAULT;
+            e.level = Vocabulary.WARNING;
+        } else if (indexOf(m, from, end, OUT_OF_MEMORY) >= 0) {
+            e.event = Vocabulary.KERNEL_OOM;
+            e.level = Vocabulary.ERROR;
+        }
+    }
+
+    private void extractUserAndSource(byte[] m, int from, int end, ParsedEvent e) {
+        int f = indexOf(m, from, end, FOR);
+        if (f < 0) {
+            return;
+        }
+        int u = f + FOR.length;
+        if (startsWith(m, u, end, FOR_INVALID_USER)) {
+            u += FOR_INVALID_USER.length;
+        }
+        int ue = tokenEnd(m, u, end);
+        e.user = internToken(m, u, ue);
+        extractFrom(m, ue, end, e);
+    }
+
+    private void extractFrom(byte[] m, int from, int end, ParsedEvent e) {
+        int f = indexOf(m, from, end, FROM);
+        if (f >= 0) {
+            int s = f + FROM.length;
+            e.sourceIp = internToken(m, s, tokenEnd(m, s, end));
+        }
+    }
+
+    private void extractPamFields(byte[] m, int from, int end, ParsedEvent e) {
+        int r = indexOf(m, from, end, RHOST);
+        if (r >= 0) {
+            int s = r + RHOST.length;
+            e.sourceIp = internToken(m, s, tokenEnd(m, s, end));
+        }
+        int u = indexOf(m, from, end, USER_EQ);
+        if (u >= 0) {
+            int s = u + USER_EQ.length;
+            e.user = internToken(m, s, tokenEnd(m, s, end));
+        }
+    }
+
+    private String internToken(byte[] b, int from, int end) {
+        return end > from ? symbols.intern(b, from, end - from) : null;
+    }
+
+    private void setMessage(byte[] b, int p, int end, ParsedEvent e) {
+        msgStart = p;
+        msgEnd = end;
+        e.message = new String(b, p, end - p, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isNil(byte[] b, int p, int t) {
+        return t - p == 1 && b[p] == '-';
+    }
+
+    private String nilOrIntern(byte[] b, int p, int t) {
+        return t <= p || isNil(b, p, t) ? null : symbols.intern(b, p, t - p);
+    }
+}
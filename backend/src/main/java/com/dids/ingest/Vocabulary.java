@@ -0,0 +1,100 @@
+package com.dids.ingest;
+
+/**
+ * Canonical level and event names. Parsers hand out these instances (they are also seeded into
+ * every {@link SymbolTable}), so events never carry private copies of them.
+ */
+final class Vocabulary {
+
+    static final String ERROR = "error";
+    static final String WARNING = "warning";
+    static final String INFO = "info";
+
+    static final String SYSLOG = "syslog";
+    static final String AGENT_EVENT = "agent_event";
+
+    static final String SSHD = "sshd";
+    static final String SSH_LOGIN_FAILED = "ssh_login_failed";
+    static final String SSH_LOGIN_SUCCESS = "ssh_login_success";
+    static final String SSH_INVALID_USER = "ssh_invalid_user";
+    static final String SSH_AUTH_FAILURE = "ssh_auth_failure";
+
+    static final String SUDO = "sudo";
+    static final String SUDO_COMMAND = "sudo_command";
+    static final String SUDO_AUTH_FAILURE = "sudo_auth_failure";
+    static final String SUDO_DENIED = "sudo_denied";
+
+    static final String KERNEL = "kernel";
+    static final String KERNEL_FIREWALL = "kernel_firewall";
+    static final String KERNEL_SEGFAULT = "kernel_segfault";
+    static final String KERNEL_OOM = "kernel_oom";
+
+    static final String WIN_LOGON_SUCCESS = "win_logon_success";
+    static final String WIN_LOGON_FAILED = "win_logon_failed";
+    static final String WIN_SPECIAL_PRIVILEGES = "win_special_privileges";
+    static final String WIN_PROCESS_CREATED = "win_process_created";
+    static final String WIN_USER_CREATED = "win_user_created";
+    static final String WIN_GROUP_MEMBER_ADDED = "win_group_member_added";
+    static final String WIN_ACCOUNT_LOCKED = "win_account_locked";
+    static final String WIN_AUDIT_LOG_CLEARED = "win_audit_log_cleared";
+    static final String WIN_SERVICE_INSTALLED = "win_service_installed";
+
+    static final String[] ALL = {
+            ERROR, WARNING, INFO, SYSLOG, AGENT_EVENT,
+            SSHD, SSH_LOGIN_FAILED, SSH_LOGIN_SUCCESS, SSH_INVALID_USER, SSH_AUTH_FAILURE,
+            SUDO, SUDO_COMMAND, SUDO_AUTH_FAILURE, SUDO_DENIED,
+            KERNEL, KERNEL_FIREWALL, KERNEL_SEGFAULT, KERNEL_OOM,
+            WIN_LOGON_SUCCESS, WIN_LOGON_FAILED, WIN_SPECIAL_PRIVILEGES, WIN_PROCESS_CREATED, WIN_USER_CREATED,
+            WIN_GROUP_MEMBER_ADDED, WIN_ACCOUNT_LOCKED, WIN_AUDIT_LOG_CLEARED, WIN_SERVICE_INSTALLED
+    };
+
+    private Vocabulary() {
+    }
+
+    /**
+     * Maps a syslog severity (0 emergency .. 7 debug) onto the Log levels.
+     */
+    static String levelForSeverity(int severity) {
+        if (severity <= 3) {
+            return ERROR;
+        }
+        return severity == 4 ? WARNING : INFO;
+    }
+
+    /**
+     * Windows Security/System event ids worth naming; null for everything else.
+     */
+    static String windowsEvent(int eventId) {
+        switch (eventId) {
+            case 4624: return WIN_LOGON_SUCCESS;
+            case 4625: return WIN_LOGON_FAILED;
+            case 4672: return WIN_SPECIAL_PRIVILEGES;
+            case 4688: return WIN_PROCESS_CREATED;
+            case 4720: return WIN_USER_CREATED;
+            case 4728:
+            case 4732:
+            case 4756: return WIN_GROUP_MEMBER_ADDED;
+            case 4740: return WIN_ACCOUNT_LOCKED;
+            case 1102: return WIN_AUDIT_LOG_CLEARED;
+            case 7045: return WIN_SERVICE_INSTALLED;
+            default: return null;
+        }
+    }
+
+    /**
+     * Level implied by a Windows event id when the payload doesn't carry one.
+     */
+    static String windowsLevel(int eventId) {
+        switch (eventId) {
+            case 1102:
+            case 4740: return ERROR;
+            case 4625:
+            case 4720:
+            case 4728:
+            case 4732:
+            case 4756:
+            case 7045: return WARNING;
+            default: return INFO;
+        }
+    }
+}
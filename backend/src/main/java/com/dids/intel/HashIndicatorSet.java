@@ -0,0 +1,155 @@
+package com.dids.intel;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of file hashes (MD5, SHA-1, SHA-256). Each hash is reduced to 128 bits (its
+ * leading 16 bytes, tagged with the digest length) and stored in an open-addressing table of
+ * two long arrays. A Bloom filter sits in front, so the common case (hash not listed) touches a
+ * few bits of a much smaller array instead of the table.
+ */
+final class HashIndicatorSet {
+
+    static final HashIndicatorSet EMPTY = new Builder().build();
+
+    private static final int BLOOM_BITS_PER_ENTRY = 10;
+    private static final int BLOOM_HASHES = 7;
+
+    private final long[] bloom;
+    private final int bloomMask;
+    private final long[] hi;
+    private final long[] lo;
+    private final boolean[] used;
+    private final int mask;
+    private final int size;
+
+    private HashIndicatorSet(long[] bloom, long[] hi, long[] lo, boolean[] used, int size) {
+        this.bloom = bloom;
+        this.bloomMask = bloom.length * 64 - 1;
+        this.hi = hi;
+        this.lo = lo;
+        this.used = used;
+        this.mask = hi.length - 1;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Looks up the digest in {@code s[from, to)}, which the caller has checked is all hex digits.
+     * Lengths other than 32, 40 or 64 never match.
+     */
+    boolean contains(CharSequence s, int from, int to) {
+        int length = to - from;
+        if (size == 0 || (length != 32 && length != 40 && length != 64)) {
+            return false;
+        }
+        long h = hex(s, from);
+        long l = hex(s, from + 16) ^ length;
+        if (!mightContain(h, l)) {
+            return false;
+        }
+        for (int i = slot(h, l); used[i]; i = (i + 1) & mask) {
+            if (hi[i] == h && lo[i] == l) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean mightContain(long h, long l) {
+        long h1 = mix(h ^ l);
+        long h2 = mix(l) | 1;
+        for (int k = 0; k < BLOOM_HASHES; k++) {
+            int bit = (int) (h1 + k * h2) & bloomMask;
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int slot(long h, long l) {
+        return (int) mix(h * 31 + l) & mask;
+    }
+
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    private static long hex(CharSequence s, int from) {
+        long value = 0;
+        for (int i = from; i < from + 16; i++) {
+            value = (value << 4) | Character.digit(s.charAt(i), 16);
+        }
+        return value;
+    }
+
+    static final class Builder {
+
+        private long[] pending = new long[1024];
+        private int count;
+
+        /**
+         * @return false if the entry is not a 32, 40 or 64 character hex digest
+         */
+        boolean add(String digest) {
+            String hash = digest.strip();
+            int length = hash.length();
+            if (length != 32 && length != 40 && length != 64) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (Character.digit(hash.charAt(i), 16) < 0) {
+                    return false;
+                }
+            }
+            if (count + 2 > pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            pending[count++] = hex(hash, 0);
+            pending[count++] = hex(hash, 16) ^ length;
+            return true;
+        }
+
+        HashIndicatorSet build() {
+            int entries = count / 2;
+            int capacity = Integer.highestOneBit(Math.max(entries * 2, 8) - 1) << 1;
+            int bloomWords = Math.max(1, Integer.highestOneBit(Math.max(entries * BLOOM_BITS_PER_ENTRY / 64, 1) - 1) << 1);
+            HashIndicatorSet set = new HashIndicatorSet(
+                    new long[bloomWords], new long[capacity], new long[capacity], new boolean[capacity], 0);
+            int size = 0;
+            for (int e = 0; e < count; e += 2) {
+                if (set.insert(pending[e], pending[e + 1])) {
+                    size++;
+                }
+            }
+            return new HashIndicatorSet(set.bloom, set.hi, set.lo, set.used, size);
+        }
+    }
+
+    private boolean insert(long h, long l) {
+        int i = slot(h, l);
+        while (used[i]) {
+            if (hi[i] == h && lo[i] == l) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        hi[i] = h;
+        lo[i] = l;
+        long h1 = mix(h ^ l);
+        long h2 = mix(l) | 1;
+        for (int k = 0; k < BLOOM_HASHES; k++) {
+            int bit = (int) (h1 + k * h2) & bloomMask;
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+        return true;
+    }
+}
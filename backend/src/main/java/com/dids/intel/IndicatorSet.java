@@ -0,0 +1,188 @@
+package com.dids.intel;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * One immutable generation of threat indicators: IPv4 addresses/CIDRs, domains, substrings and
+ * file hashes. Built off to the side from feed files and published by swapping a reference, so
+ * scanning never waits for a reload.
+ */
+public final class IndicatorSet {
+
+    public static final String IP_FEED = "ips.txt";
+    public static final String DOMAIN_FEED = "domains.txt";
+    public static final String SUBSTRING_FEED = "substrings.txt";
+    public static final String HASH_FEED = "hashes.txt";
+
+    public static final IndicatorSet EMPTY = new IndicatorSet(
+            Ipv4RangeSet.EMPTY, PatternAutomaton.EMPTY, HashIndicatorSet.EMPTY, 0, 0);
+
+    public interface MatchSink {
+        void match(IndicatorType type, String indicator);
+    }
+
+    private final Ipv4RangeSet ips;
+    private final PatternAutomaton patterns;
+    private final HashIndicatorSet hashes;
+    private final int rejectedLines;
+    private final long loadedAt;
+
+    private IndicatorSet(Ipv4RangeSet ips, PatternAutomaton patterns, HashIndicatorSet hashes,
+                         int rejectedLines, long loadedAt) {
+        this.ips = ips;
+        this.patterns = patterns;
+        this.hashes = hashes;
+        this.rejectedLines = rejectedLines;
+        this.loadedAt = loadedAt;
+    }
+
+    public int getRejectedLines() {
+        return rejectedLines;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public int getIpRanges() {
+        return ips.ranges();
+    }
+
+    public int getPatterns() {
+        return patterns.patterns();
+    }
+
+    public int getHashes() {
+        return hashes.size();
+    }
+
+    /**
+     * Reports every indicator found in a log message, plus {@code sourceIp} when it is listed.
+     * Nothing is allocated unless something matches.
+     */
+    public void scan(String message, String sourceIp, MatchSink sink) {
+        if (sourceIp != null && ips.ranges() > 0) {
+            long address = Ipv4RangeSet.parseAddress(sourceIp, 0, sourceIp.length());
+            if (address >= 0 && ips.contains((int) address)) {
+                sink.match(IndicatorType.IP, sourceIp);
+            }
+        }
+        if (message == null || message.isEmpty()) {
+            return;
+        }
+        if (ips.ranges() > 0) {
+            scanAddresses(message, sourceIp, sink);
+        }
+        if (hashes.size() > 0) {
+            scanHashes(message, sink);
+        }
+        patterns.scan(message, sink);
+    }
+
+    private void scanAddresses(String s, String sourceIp, MatchSink sink) {
+        int length = s.length();
+        int i = 0;
+        while (i < length) {
+            char c = s.charAt(i);
+            if (!isDigit(c) || (i > 0 && (isAlphaNumeric(s.charAt(i - 1)) || s.charAt(i - 1) == '.'))) {
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < length && (isDigit(s.charAt(end)) || s.charAt(end) == '.')) {
+                end++;
+            }
+            int tokenEnd = end;
+            if (tokenEnd > i && s.charAt(tokenEnd - 1) == '.') {
+                tokenEnd--; // sentence-ending dot
+            }
+            if (end >= length || !isAlphaNumeric(s.charAt(end))) {
+                long address = Ipv4RangeSet.parseAddress(s, i, tokenEnd);
+                if (address >= 0 && ips.contains((int) address)) {
+                    String ip = s.substring(i, tokenEnd);
+                    if (!ip.equals(sourceIp)) {
+                        sink.match(IndicatorType.IP, ip);
+                    }
+                }
+            }
+            i = end;
+        }
+    }
+
+    private void scanHashes(String s, MatchSink sink) {
+        int length = s.length();
+        int i = 0;
+        while (i < length) {
+            if (!isAlphaNumeric(s.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = i;
+            boolean hex = true;
+            while (end < length && isAlphaNumeric(s.charAt(end))) {
+                hex &= Character.digit(s.charAt(end), 16) >= 0;
+                end++;
+            }
+            if (hex && hashes.contains(s, i, end)) {
+                sink.match(IndicatorType.HASH, s.substring(i, end).toLowerCase(Locale.ROOT));
+            }
+            i = end;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAlphaNumeric(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Builds a new set from the feed files in {@code dir}. Missing files are treated as empty;
+     * blank lines and lines starting with '#' are ignored, and invalid entries are counted in
+     * {@link #getRejectedLines()}.
+     */
+    public static IndicatorSet load(Path dir) throws IOException {
+        int[] rejected = new int[1];
+
+        Ipv4RangeSet.Builder ips = new Ipv4RangeSet.Builder();
+        readFeed(dir.resolve(IP_FEED), line -> ips.add(line), rejected);
+
+        PatternAutomaton.Builder patterns = new PatternAutomaton.Builder();
+        readFeed(dir.resolve(DOMAIN_FEED), line -> patterns.add(line, true), rejected);
+        readFeed(dir.resolve(SUBSTRING_FEED), line -> patterns.add(line, false), rejected);
+
+        HashIndicatorSet.Builder hashes = new HashIndicatorSet.Builder();
+        readFeed(dir.resolve(HASH_FEED), line -> hashes.add(line), rejected);
+
+        return new IndicatorSet(ips.build(), patterns.build(), hashes.build(), rejected[0], System.currentTimeMillis());
+    }
+
+    private interface LineConsumer {
+        boolean accept(String line);
+    }
+
+    private static void readFeed(Path file, LineConsumer consumer, int[] rejected) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String entry = line.strip();
+                if (entry.isEmpty() || entry.charAt(0) == '#') {
+                    continue;
+                }
+                if (!consumer.accept(entry)) {
+                    rejected[0]++;
+                }
+            }
+        }
+    }
+}
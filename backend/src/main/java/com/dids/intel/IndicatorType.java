@@ -0,0 +1,21 @@
+package com.dids.intel;
+
+public enum IndicatorType {
+    IP("high"),
+    DOMAIN("high"),
+    HASH("critical"),
+    SUBSTRING("medium");
+
+    private final String severity;
+
+    IndicatorType(String severity) {
+        this.severity = severity;
+    }
+
+    /**
+     * Alert severity raised for a match of this kind.
+     */
+    public String severity() {
+        return severity;
+    }
+}
@@ -0,0 +1,137 @@
+package com.dids.intel;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of IPv4 addresses and CIDR blocks, stored as merged, sorted, non-overlapping
+ * ranges in two int arrays (8 bytes per range). Lookups are a binary search over the starts.
+ *
+ * Addresses are kept with the sign bit flipped so plain signed comparisons order them as
+ * unsigned values.
+ */
+final class Ipv4RangeSet {
+
+    static final Ipv4RangeSet EMPTY = new Builder().build();
+
+    private final int[] starts;
+    private final int[] ends;
+
+    private Ipv4RangeSet(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    int ranges() {
+        return starts.length;
+    }
+
+    boolean contains(int address) {
+        int key = address ^ Integer.MIN_VALUE;
+        int lo = 0;
+        int hi = starts.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return hi >= 0 && key <= ends[hi];
+    }
+
+    /**
+     * Parses a dotted-quad address from {@code s[from, to)}.
+     *
+     * @return the address as an unsigned value, or -1 if the text is not exactly four octets
+     */
+    static long parseAddress(CharSequence s, int from, int to) {
+        long address = 0;
+        int octets = 0;
+        int p = from;
+        while (p < to) {
+            int value = 0;
+            int digits = 0;
+            while (p < to && s.charAt(p) >= '0' && s.charAt(p) <= '9' && digits < 4) {
+                value = value * 10 + (s.charAt(p++) - '0');
+                digits++;
+            }
+            if (digits == 0 || digits > 3 || value > 255) {
+                return -1;
+            }
+            address = (address << 8) | value;
+            if (++octets == 4) {
+                return p == to ? address : -1;
+            }
+            if (p >= to || s.charAt(p) != '.') {
+                return -1;
+            }
+            p++;
+        }
+        return -1;
+    }
+
+    static final class Builder {
+
+        private long[] packed = new long[1024];
+        private int size;
+
+        /**
+         * Adds "a.b.c.d" or "a.b.c.d/n".
+         *
+         * @return false if the entry is not a valid IPv4 address or CIDR block
+         */
+        boolean add(String entry) {
+            int slash = entry.indexOf('/');
+            long address = parseAddress(entry, 0, slash < 0 ? entry.length() : slash);
+            if (address < 0) {
+                return false;
+            }
+            int prefix = 32;
+            if (slash >= 0) {
+                try {
+                    prefix = Integer.parseInt(entry, slash + 1, entry.length(), 10);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+                if (prefix < 0 || prefix > 32) {
+                    return false;
+                }
+            }
+            long span = 1L << (32 - prefix);
+            long start = address & ~(span - 1);
+            add(start, start + span - 1);
+            return true;
+        }
+
+        private void add(long start, long end) {
+            if (size == packed.length) {
+                packed = Arrays.copyOf(packed, size * 2);
+            }
+            // start in the high half so one sort orders by start, then end
+            packed[size++] = ((start << 32) | end) ^ Long.MIN_VALUE;
+        }
+
+        Ipv4RangeSet build() {
+            long[] sorted = Arrays.copyOf(packed, size);
+            Arrays.sort(sorted);
+            int[] starts = new int[size];
+            int[] ends = new int[size];
+            int count = 0;
+            for (long entry : sorted) {
+                long value = entry ^ Long.MIN_VALUE;
+                int start = (int) (value >>> 32) ^ Integer.MIN_VALUE;
+                int end = (int) value ^ Integer.MIN_VALUE;
+                // merge overlapping and adjacent ranges
+                if (count > 0 && start <= (long) ends[count - 1] + 1) {
+                    ends[count - 1] = Math.max(ends[count - 1], end);
+                } else {
+                    starts[count] = start;
+                    ends[count] = end;
+                    count++;
+                }
+            }
+            return new Ipv4RangeSet(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.dids.intel;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Aho-Corasick automaton over case-folded ASCII, used for domain and substring indicators.
+ * One pass over a message finds every pattern occurrence regardless of how many patterns are
+ * loaded.
+ *
+ * The frozen automaton is stored in flat arrays: each state's transitions occupy a sorted slice
+ * of {@code labels}/{@code targets} (searched by binary search), so millions of states cost a
+ * few dozen bytes each instead of an object per node.
+ *
+ * Domain patterns only match on label boundaries: "evil.com" matches "cdn.evil.com/x" but
+ * not "notevil.com" or "evil.community".
+ */
+final class PatternAutomaton {
+
+    static final PatternAutomaton EMPTY = new Builder().build();
+
+    private final int[] edgeStart;
+    private final char[] labels;
+    private final int[] targets;
+    private final int[] fail;
+    private final int[] output;
+    private final int[] outputLink;
+    private final String[] patterns;
+    private final boolean[] domain;
+
+    private PatternAutomaton(int[] edgeStart, char[] labels, int[] targets, int[] fail, int[] output,
+                             int[] outputLink, String[] patterns, boolean[] domain) {
+        this.edgeStart = edgeStart;
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.patterns = patterns;
+        this.domain = domain;
+    }
+
+    int patterns() {
+        return patterns.length;
+    }
+
+    void scan(CharSequence text, IndicatorSet.MatchSink sink) {
+        if (patterns.length == 0) {
+            return;
+        }
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = fold(text.charAt(i));
+            int next = step(state, c);
+            while (next < 0 && state != 0) {
+                state = fail[state];
+                next = step(state, c);
+            }
+            state = next < 0 ? 0 : next;
+
+            for (int s = output[state] >= 0 ? state : outputLink[state]; s > 0; s = outputLink[s]) {
+                int p = output[s];
+                String pattern = patterns[p];
+                if (!domain[p] || onLabelBoundary(text, i - pattern.length() + 1, i + 1)) {
+                    sink.match(domain[p] ? IndicatorType.DOMAIN : IndicatorType.SUBSTRING, pattern);
+                }
+            }
+        }
+    }
+
+    private int step(int state, char c) {
+        int lo = edgeStart[state];
+        int hi = edgeStart[state + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char label = labels[mid];
+            if (label < c) {
+                lo = mid + 1;
+            } else if (label > c) {
+                hi = mid - 1;
+            } else {
+                return targets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static boolean onLabelBoundary(CharSequence text, int start, int end) {
+        if (start > 0 && isHostChar(text.charAt(start - 1))) {
+            return false;
+        }
+        if (end < text.length()) {
+            char after = text.charAt(end);
+            if (isHostChar(after)) {
+                return false;
+            }
+            // "evil.com.au" is a different domain, but a sentence-ending "evil.com." is not
+            if (after == '.' && end + 1 < text.length() && isHostChar(text.charAt(end + 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHostChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+
+    private static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c | 0x20) : c;
+    }
+
+    static final class Builder {
+
+        // Build-time trie: children as sibling lists
+        private int[] firstChild = new int[1024];
+        private int[] nextSibling = new int[1024];
+        private char[] label = new char[1024];
+        private int[] output = new int[1024];
+        private int states = 1;
+        private int edges;
+        private String[] patterns = new String[64];
+        private boolean[] domain = new boolean[64];
+        private int patternCount;
+
+        Builder() {
+            firstChild[0] = -1;
+            nextSibling[0] = -1;
+            output[0] = -1;
+        }
+
+        /**
+         * @return false if the pattern is empty or not ASCII
+         */
+        boolean add(String pattern, boolean isDomain) {
+            String folded = pattern.strip().toLowerCase(Locale.ROOT);
+            if (isDomain && folded.startsWith("*.")) {
+                folded = folded.substring(2);
+            }
+            if (folded.isEmpty() || !folded.chars().allMatch(c -> c < 128)) {
+                return false;
+            }
+            int state = 0;
+            for (int i = 0; i < folded.length(); i++) {
+                char c = folded.charAt(i);
+                int child = child(state, c);
+                if (child < 0) {
+                    child = newState(state, c);
+                }
+                state = child;
+            }
+            if (output[state] >= 0) {
+                // same text as a domain and as a substring: keep the substring (it is the broader match)
+                if (!isDomain) {
+                    domain[output[state]] = false;
+                }
+                return true;
+            }
+            if (patternCount == patterns.length) {
+                patterns = Arrays.copyOf(patterns, patternCount * 2);
+                domain = Arrays.copyOf(domain, patternCount * 2);
+            }
+            patterns[patternCount] = folded;
+            domain[patternCount] = isDomain;
+            output[state] = patternCount++;
+            return true;
+        }
+
+        private int child(int state, char c) {
+            for (int s = firstChild[state]; s >= 0; s = nextSibling[s]) {
+                if (label[s] == c) {
+                    return s;
+                }
+            }
+            return -1;
+        }
+
+        private int newState(int parent, char c) {
+            if (states == firstChild.length) {
+                int capacity = states * 2;
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                label = Arrays.copyOf(label, capacity);
+                output = Arrays.copyOf(output, capacity);
+            }
+            int s = states++;
+            firstChild[s] = -1;
+            output[s] = -1;
+            label[s] = c;
+            nextSibling[s] = firstChild[parent];
+            firstChild[parent] = s;
+            edges++;
+            return s;
+        }
+
+        PatternAutomaton build() {
+            // Renumber states in BFS order so fail links always point to earlier states
+            int[] order = new int[states];
+            int[] renumber = new int[states];
+            int head = 0;
+            int tail = 0;
+            order[tail++] = 0;
+            while (head < tail) {
+                int s = order[head++];
+                for (int c = firstChild[s]; c >= 0; c = nextSibling[c]) {
+                    order[tail++] = c;
+                }
+            }
+            for (int i = 0; i < states; i++) {
+                renumber[order[i]] = i;
+            }
+
+            int[] edgeStart = new int[states + 1];
+            char[] labels = new char[edges];
+            int[] targets = new int[edges];
+            int[] out = new int[states];
+            int e = 0;
+            char[] scratchLabels = new char[128];
+            int[] scratchTargets = new int[128];
+            for (int i = 0; i < states; i++) {
+                int s = order[i];
+                edgeStart[i] = e;
+                out[i] = output[s];
+                int n = 0;
+                for (int c = firstChild[s]; c >= 0; c = nextSibling[c]) {
+                    scratchLabels[n] = label[c];
+                    scratchTargets[n] = renumber[c];
+                    n++;
+                }
+                // insertion sort: at most 128 ASCII children
+                for (int a = 1; a < n; a++) {
+                    char l = scratchLabels[a];
+                    int t = scratchTargets[a];
+                    int b = a - 1;
+                    while (b >= 0 && scratchLabels[b] > l) {
+                        scratchLabels[b + 1] = scratchLabels[b];
+                        scratchTargets[b + 1] = scratchTargets[b];
+                        b--;
+                    }
+                    scratchLabels[b + 1] = l;
+                    scratchTargets[b + 1] = t;
+                }
+                System.arraycopy(scratchLabels, 0, labels, e, n);
+                System.arraycopy(scratchTargets, 0, targets, e, n);
+                e += n;
+            }
+            edgeStart[states] = e;
+
+            int[] fail = new int[states];
+            int[] outputLink = new int[states];
+            PatternAutomaton automaton = new PatternAutomaton(edgeStart, labels, targets, fail, out, outputLink,
+                    Arrays.copyOf(patterns, patternCount), Arrays.copyOf(domain, patternCount));
+
+            // States are in BFS order, so a plain index loop visits parents before children
+            for (int u = 0; u < states; u++) {
+                for (int k = edgeStart[u]; k < edgeStart[u + 1]; k++) {
+                    int v = targets[k];
+                    char c = labels[k];
+                    if (u != 0) {
+                        int f = fail[u];
+                        int next = automaton.step(f, c);
+                        while (next < 0 && f != 0) {
+                            f = fail[f];
+                            next = automaton.step(f, c);
+                        }
+                        fail[v] = next < 0 ? 0 : next;
+                    }
+                    int f = fail[v];
+                    outputLink[v] = out[f] >= 0 ? f : outputLink[f];
+                }
+            }
+            return automaton;
+        }
+    }
+}
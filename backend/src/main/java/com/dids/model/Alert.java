@@ -23,5 +23,8 @@ public class Alert {
     private String severity; // critical, high, medium, low
     private String status; // open, resolved
     private LocalDateTime timestamp;
+    private String indicator; // ioc_match: the matched indicator
+    private Integer count; // ioc_match: matching logs coalesced into this alert
+    private LocalDateTime lastSeen; // ioc_match: timestamp of the latest matching log
 }
 
@@ -22,5 +22,14 @@ public class Log {
     private String message;
     private String level; // error, warning, info
     private LocalDateTime timestamp;
+
+    // Typed fields extracted by the ingestion parsers (null when not present in the source)
+    private String host;
+    private String program;
+    private Integer pid;
+    private String user;
+    private String targetUser;
+    private String sourceIp;
+    private Integer eventCode; // e.g. Windows EventID
 }
 
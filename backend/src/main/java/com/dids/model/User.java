@@ -7,6 +7,8 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 
+import java.util.List;
+
 @Document(collection = "users")
 @Data
 @NoArgsConstructor
@@ -22,5 +24,11 @@ public class User {
     private String name;
     private String email;
     private String role;
+
+    /**
+     * Devices this user may act on. When null, non-admin roles fall back to every device
+     * deployed under an active policy.
+     */
+    private List<String> deviceIds;
 }
 
@@ -0,0 +1,101 @@
+package com.dids.ratelimit;
+
+import com.dids.security.UserPermissions;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects requests over their rule's limit with a 429 before they reach any controller.
+ *
+ * Registered twice: the pre-authentication instance applies "ip" rules, so floods are turned away
+ * before any token is verified; the post-authentication instance applies "user" and "device"
+ * rules, which key on the authenticated caller. Unauthenticated requests under those rules fall
+ * back to the client IP. Rules match the decoded, normalised servlet path.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] TOO_MANY_REQUESTS_BODY =
+            "{\"status\":429,\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimitRegistry registry;
+    private final boolean authenticated;
+
+    /**
+     * @param authenticated true for the instance after bearer authentication, false for the one before it
+     */
+    public RateLimitFilter(RateLimitRegistry registry, boolean authenticated) {
+        this.registry = registry;
+        this.authenticated = authenticated;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimitRule rule = registry.matchHttp(pathOf(request));
+        if (rule != null && (rule.getKeyType() != RateLimitRule.KeyType.IP) == authenticated) {
+            long waitNanos = rule.getLimiter().tryAcquire(keyFor(rule, request));
+            if (waitNanos > 0) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader("Retry-After", Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1)));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setContentLength(TOO_MANY_REQUESTS_BODY.length);
+                response.getOutputStream().write(TOO_MANY_REQUESTS_BODY);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        // Both instances share a class; keep their once-per-request markers apart
+        return super.getAlreadyFilteredAttributeName() + (authenticated ? ".authenticated" : ".anonymous");
+    }
+
+    /**
+     * The path the application dispatches on: decoded, without path parameters or dot segments.
+     */
+    private static String pathOf(HttpServletRequest request) {
+        String pathInfo = request.getPathInfo();
+        return pathInfo == null ? request.getServletPath() : request.getServletPath() + pathInfo;
+    }
+
+    private static String keyFor(RateLimitRule rule, HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserPermissions user = authentication != null && authentication.getPrincipal() instanceof UserPermissions p
+                ? p
+                : null;
+        switch (rule.getKeyType()) {
+            case USER:
+                if (user != null) {
+                    return user.getUsername();
+                }
+                break;
+            case DEVICE:
+                if (user != null) {
+                    // The header only narrows the key to a device the caller is bound to; rotating it
+                    // to anything else lands back in the caller's own bucket
+                    String deviceId = request.getHeader("X-Device-Id");
+                    if (deviceId != null && !user.isAllDevices() && user.canAccessDevice(deviceId)) {
+                        return user.getUsername() + "@" + deviceId;
+                    }
+                    return user.getUsername();
+                }
+                break;
+            default:
+                break;
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,29 @@
+package com.dids.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private int maxKeys = 100_000; // per rule
+    private long idleSeconds = 300;
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private String channel = "http"; // http, stomp
+        private String pattern; // exact path/destination, or a prefix ending in "/**"
+        private String key = "ip"; // ip, user, device
+        private double permitsPerSecond;
+        private int burst = 1;
+    }
+}
@@ -0,0 +1,76 @@
+package com.dids.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles {@link RateLimitProperties} into per-channel rule lists. Rules are tried in
+ * configuration order and the first match applies.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitRegistry {
+
+    private final RateLimitProperties properties;
+
+    private RateLimitRule[] httpRules = new RateLimitRule[0];
+    private RateLimitRule[] stompRules = new RateLimitRule[0];
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            log.info("Rate limiting disabled");
+            return;
+        }
+        long idleNanos = TimeUnit.SECONDS.toNanos(properties.getIdleSeconds());
+        List<RateLimitRule> http = new ArrayList<>();
+        List<RateLimitRule> stomp = new ArrayList<>();
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            if (rule.getPattern() == null || rule.getPattern().isBlank()) {
+                throw new IllegalStateException("Rate limit rule '" + rule.getName() + "' has no pattern");
+            }
+            RateLimitRule compiled = new RateLimitRule(
+                    rule.getName(),
+                    rule.getPattern(),
+                    RateLimitRule.KeyType.valueOf(rule.getKey().toUpperCase(Locale.ROOT)),
+                    new RateLimiter(rule.getPermitsPerSecond(), rule.getBurst(), idleNanos, properties.getMaxKeys()));
+            if ("stomp".equalsIgnoreCase(rule.getChannel())) {
+                stomp.add(compiled);
+            } else {
+                http.add(compiled);
+            }
+            log.info("Rate limit '{}': {} {} {}/s burst {} per {}", rule.getName(), rule.getChannel(),
+                    rule.getPattern(), rule.getPermitsPerSecond(), rule.getBurst(), rule.getKey());
+        }
+        httpRules = http.toArray(new RateLimitRule[0]);
+        stompRules = stomp.toArray(new RateLimitRule[0]);
+    }
+
+    public RateLimitRule matchHttp(String path) {
+        return match(httpRules, path);
+    }
+
+    public RateLimitRule matchStomp(String destination) {
+        return match(stompRules, destination);
+    }
+
+    private static RateLimitRule match(RateLimitRule[] rules, String path) {
+        if (path == null) {
+            return null;
+        }
+        for (RateLimitRule rule : rules) {
+            if (rule.matches(path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+}
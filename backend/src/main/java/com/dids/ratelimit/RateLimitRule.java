@@ -0,0 +1,33 @@
+package com.dids.ratelimit;
+
+import lombok.Getter;
+
+/**
+ * A configured rule compiled for matching on the request path: exact, or prefix for patterns ending in "/**".
+ */
+@Getter
+public class RateLimitRule {
+
+    public enum KeyType { IP, USER, DEVICE }
+
+    private final String name;
+    private final KeyType keyType;
+    private final RateLimiter limiter;
+    private final String base;
+    private final boolean prefix;
+
+    public RateLimitRule(String name, String pattern, KeyType keyType, RateLimiter limiter) {
+        this.name = name;
+        this.keyType = keyType;
+        this.limiter = limiter;
+        this.prefix = pattern.endsWith("/**");
+        this.base = prefix ? pattern.substring(0, pattern.length() - 3) : pattern;
+    }
+
+    public boolean matches(String path) {
+        if (!prefix) {
+            return base.equals(path);
+        }
+        return path.startsWith(base) && (path.length() == base.length() || path.charAt(base.length()) == '/');
+    }
+}
@@ -0,0 +1,77 @@
+package com.dids.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets for one limit, keyed by user, IP or device.
+ *
+ * Memory is bounded by {@code maxKeys}: when the table is full, buckets that have been idle (and
+ * therefore full) for {@code idleNanos} are evicted, which loses no state. If every key is still
+ * active, new keys share a single overflow bucket instead of growing the table. A full table is
+ * swept at most once per {@link #SWEEP_INTERVAL_NANOS}, so a stream of new keys against live
+ * ones costs one map lookup each rather than a scan of the table.
+ */
+public final class RateLimiter {
+
+    static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong(Long.MIN_VALUE);
+    private final TokenBucket overflow;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final long idleNanos;
+    private final int maxKeys;
+
+    public RateLimiter(double permitsPerSecond, int burst, long idleNanos, int maxKeys) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit needs permitsPerSecond > 0 and burst >= 1");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * burst;
+        this.idleNanos = Math.max(idleNanos, toleranceNanos);
+        this.maxKeys = maxKeys;
+        this.overflow = new TokenBucket(System.nanoTime());
+    }
+
+    /**
+     * @return 0 if the request may proceed, otherwise the nanos until the key has a token again
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = admit(key, now);
+        }
+        return bucket.tryAcquire(now, intervalNanos, toleranceNanos);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private TokenBucket admit(String key, long now) {
+        if (buckets.size() >= maxKeys) {
+            evictIdle(now);
+            if (buckets.size() >= maxKeys) {
+                return overflow;
+            }
+        }
+        TokenBucket created = new TokenBucket(now);
+        TokenBucket existing = buckets.putIfAbsent(key, created);
+        return existing != null ? existing : created;
+    }
+
+    private void evictIdle(long now) {
+        // One sweeper per interval; other threads fall through to the overflow bucket meanwhile
+        long due = nextSweep.get();
+        if ((due == Long.MIN_VALUE || now - due >= 0)
+                && nextSweep.compareAndSet(due, now + Math.min(SWEEP_INTERVAL_NANOS, idleNanos))) {
+            buckets.values().removeIf(b -> b.isIdle(now, idleNanos));
+        }
+    }
+}
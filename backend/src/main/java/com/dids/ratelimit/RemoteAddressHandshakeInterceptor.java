@@ -0,0 +1,33 @@
+package com.dids.ratelimit;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+/**
+ * Remembers the client address of the WebSocket handshake in the session attributes, so
+ * per-frame rate limits can key on it (see {@link StompRateLimitInterceptor}).
+ */
+public class RemoteAddressHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String ATTRIBUTE = "dids.remoteAddress";
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote != null) {
+            attributes.put(ATTRIBUTE, remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
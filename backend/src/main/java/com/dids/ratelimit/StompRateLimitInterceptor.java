@@ -0,0 +1,56 @@
+package com.dids.ratelimit;
+
+import com.dids.security.UserPermissions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Applies "stomp" rate-limit rules to inbound SEND frames. Over-limit frames are rejected,
+ * which the broker relays to the client as a STOMP ERROR frame.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompRateLimitInterceptor implements ChannelInterceptor {
+
+    private final RateLimitRegistry registry;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SEND.equals(accessor.getCommand())) {
+            return message;
+        }
+        RateLimitRule rule = registry.matchStomp(accessor.getDestination());
+        if (rule != null && rule.getLimiter().tryAcquire(keyFor(rule, accessor)) > 0) {
+            throw new MessageDeliveryException("Rate limit exceeded for " + rule.getName());
+        }
+        return message;
+    }
+
+    private static String keyFor(RateLimitRule rule, StompHeaderAccessor accessor) {
+        if (rule.getKeyType() != RateLimitRule.KeyType.IP) {
+            // "device" has no per-frame binding over STOMP, so it keys on the caller like "user"
+            Principal principal = accessor.getUser();
+            if (principal instanceof Authentication authentication
+                    && authentication.getPrincipal() instanceof UserPermissions user) {
+                return user.getUsername();
+            }
+        }
+        // Keyed on the handshake address rather than the session, so opening more sessions
+        // does not multiply the budget
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        Object address = attributes != null ? attributes.get(RemoteAddressHandshakeInterceptor.ATTRIBUTE) : null;
+        return address != null ? address.toString() : "unknown";
+    }
+}
@@ -0,0 +1,59 @@
+package com.dids.ratelimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free token bucket using the GCRA formulation: the whole bucket state is a single
+ * "theoretical arrival time" updated with CAS, so concurrent callers never block and no
+ * refill thread is needed. Rate and burst live in the owning {@link RateLimiter}, keeping a
+ * bucket at one long field.
+ */
+final class TokenBucket {
+
+    private static final VarHandle TAT;
+
+    static {
+        try {
+            TAT = MethodHandles.lookup().findVarHandle(TokenBucket.class, "tat", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unused") // accessed through TAT
+    private volatile long tat;
+
+    TokenBucket(long now) {
+        this.tat = now;
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @param intervalNanos  time to refill one token
+     * @param toleranceNanos interval * burst, i.e. how far ahead of now the bucket may run
+     * @return 0 if the token was granted, otherwise the nanos until one will be available
+     */
+    long tryAcquire(long now, long intervalNanos, long toleranceNanos) {
+        while (true) {
+            long current = (long) TAT.getVolatile(this);
+            // nanoTime values may wrap, so compare by difference rather than Math.max
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long excess = next - now - toleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (TAT.compareAndSet(this, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * A bucket that has been full for longer than {@code idleNanos} carries no state and can be dropped.
+     */
+    boolean isIdle(long now, long idleNanos) {
+        return now - (long) TAT.getVolatile(this) > idleNanos;
+    }
+}
@@ -0,0 +1,27 @@
+package com.dids.recording;
+
+/**
+ * On-disk layout shared by {@link RecordingWriter} and {@link RecordingReader}.
+ *
+ * Data file: an 8 byte file header (magic, version) followed by frames of
+ * [int compressedLength][int rawLength][long blockStartMillis][deflated block].
+ * Each raw block is a sequence of records [int offsetMillis][int length][UTF-8 bytes],
+ * where offsetMillis is relative to the block start.
+ *
+ * Index file: one [long blockStartMillis][long frameOffset] entry per frame.
+ */
+public final class RecordingFormat {
+
+    public static final int MAGIC = 0x44524543; // "DREC"
+    public static final int VERSION = 1;
+    public static final int FILE_HEADER_SIZE = 8;
+    public static final int FRAME_HEADER_SIZE = 16;
+    public static final int RECORD_HEADER_SIZE = 8;
+    public static final int INDEX_ENTRY_SIZE = 16;
+
+    public static final String DATA_SUFFIX = ".rec";
+    public static final String INDEX_SUFFIX = ".idx";
+
+    private RecordingFormat() {
+    }
+}
@@ -0,0 +1,178 @@
+package com.dids.recording;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Sequential reader for a recording produced by {@link RecordingWriter}.
+ *
+ * The sparse index is loaded up front so {@link #seek(long)} only has to inflate the
+ * frame containing the target time. Frames written after the last index entry (e.g. after
+ * a crash between the data and index writes) are still picked up by reading forward.
+ */
+public class RecordingReader implements Closeable {
+
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * @return false to stop reading
+         */
+        boolean visit(long timestamp, String line) throws InterruptedException;
+    }
+
+    private final FileChannel data;
+    private final Inflater inflater = new Inflater();
+    private final ByteBuffer frameHeader = ByteBuffer.allocate(RecordingFormat.FRAME_HEADER_SIZE);
+    private final long[] indexTimes;
+    private final long[] indexOffsets;
+    private final long startTime;
+
+    private byte[] compressed = new byte[0];
+    private byte[] raw = new byte[0];
+    private long position = RecordingFormat.FILE_HEADER_SIZE;
+
+    public RecordingReader(Path dataFile, Path indexFile) throws IOException {
+        this.data = FileChannel.open(dataFile, StandardOpenOption.READ);
+
+        ByteBuffer header = ByteBuffer.allocate(RecordingFormat.FILE_HEADER_SIZE);
+        boolean complete = readFully(header, 0);
+        header.flip();
+        if (!complete || header.getInt() != RecordingFormat.MAGIC || header.getInt() != RecordingFormat.VERSION) {
+            data.close();
+            throw new IOException("Not a terminal recording: " + dataFile.getFileName());
+        }
+
+        ByteBuffer entries = ByteBuffer.wrap(Files.exists(indexFile) ? Files.readAllBytes(indexFile) : new byte[0]);
+        int count = entries.remaining() / RecordingFormat.INDEX_ENTRY_SIZE;
+        this.indexTimes = new long[count];
+        this.indexOffsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            indexTimes[i] = entries.getLong();
+            indexOffsets[i] = entries.getLong();
+        }
+        this.startTime = count > 0 ? indexTimes[0] : firstFrameStart();
+    }
+
+    /**
+     * Timestamp of the first recorded line, or -1 for an empty recording. Taken from the first
+     * frame when the index is empty (a live recording, or a crash before the first index write).
+     */
+    public long startTime() {
+        return startTime;
+    }
+
+    /**
+     * Positions the reader on the frame that contains {@code timestamp}. Records before
+     * the timestamp inside that frame are still returned; callers filter them.
+     */
+    public void seek(long timestamp) {
+        int i = Arrays.binarySearch(indexTimes, timestamp);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        position = i >= 0 ? indexOffsets[i] : RecordingFormat.FILE_HEADER_SIZE;
+    }
+
+    /**
+     * Reads records from the current position until the end of the recording or until
+     * the visitor returns false.
+     */
+    public void read(RecordVisitor visitor) throws IOException, InterruptedException {
+        while (true) {
+            frameHeader.clear();
+            if (!readFully(frameHeader, position)) {
+                return;
+            }
+            frameHeader.flip();
+            int compressedLength = frameHeader.getInt();
+            int rawLength = frameHeader.getInt();
+            long blockStart = frameHeader.getLong();
+
+            if (compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+            if (raw.length < rawLength) {
+                raw = new byte[rawLength];
+            }
+            if (!readFully(ByteBuffer.wrap(compressed, 0, compressedLength), position + RecordingFormat.FRAME_HEADER_SIZE)) {
+                return; // truncated trailing frame
+            }
+            position += RecordingFormat.FRAME_HEADER_SIZE + compressedLength;
+
+            inflate(compressedLength, rawLength);
+            int pos = 0;
+            while (pos < rawLength) {
+                int offset = getInt(raw, pos);
+                int length = getInt(raw, pos + 4);
+                pos += RecordingFormat.RECORD_HEADER_SIZE;
+                String line = new String(raw, pos, length, StandardCharsets.UTF_8);
+                pos += length;
+                if (!visitor.visit(blockStart + offset, line)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        data.close();
+    }
+
+    private void inflate(int compressedLength, int rawLength) throws IOException {
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int done = 0;
+            while (done < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, done, rawLength - done);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                done += n;
+            }
+            if (done != rawLength) {
+                throw new IOException("Corrupt recording frame");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt recording frame", e);
+        }
+    }
+
+    private long firstFrameStart() throws IOException {
+        frameHeader.clear();
+        if (!readFully(frameHeader, RecordingFormat.FILE_HEADER_SIZE)) {
+            return -1;
+        }
+        frameHeader.flip();
+        // the first record of a block is at offset 0, so the block start is the first timestamp
+        return frameHeader.getLong(8);
+    }
+
+    private boolean readFully(ByteBuffer buffer, long at) throws IOException {
+        long offset = at;
+        while (buffer.hasRemaining()) {
+            int n = data.read(buffer, offset);
+            if (n < 0) {
+                return false;
+            }
+            offset += n;
+        }
+        return true;
+    }
+
+    private static int getInt(byte[] src, int pos) {
+        return ((src[pos] & 0xFF) << 24) | ((src[pos + 1] & 0xFF) << 16)
+                | ((src[pos + 2] & 0xFF) << 8) | (src[pos + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,261 @@
+package com.dids.recording;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.Deflater;
+
+/**
+ * Append-only writer for a single terminal session recording.
+ *
+ * Lines are UTF-8 encoded straight into a fixed in-memory block, so appending a line
+ * only copies bytes. Full (or stale) blocks are sealed and handed to a background executor,
+ * which deflates them and appends them to the data file with one entry per frame in the sparse
+ * time index. Two blocks are double-buffered: the live path only waits if the previous block is
+ * still being written when the next one fills.
+ */
+public class RecordingWriter implements Closeable {
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final Executor io;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    private final byte[] frame;
+    private final ByteBuffer frameBuffer;
+    private final ByteBuffer indexBuffer = ByteBuffer.allocate(RecordingFormat.INDEX_ENTRY_SIZE);
+    private final int maxLineChars;
+
+    // Guarded by this
+    private byte[] block;
+    private byte[] spare; // null while a sealed block is being written
+    private int blockLength;
+    private long blockStart = -1;
+    private boolean closed;
+    private boolean channelsClosed;
+    private IOException failure;
+
+    // Only touched by the single in-flight write
+    private long dataPosition;
+
+    public RecordingWriter(Path dataFile, Path indexFile, int blockSize, Executor io) throws IOException {
+        this.io = io;
+        this.block = new byte[blockSize];
+        this.spare = new byte[blockSize];
+        // Deflate never expands input by more than a few bytes per 16K stored block
+        this.frame = new byte[RecordingFormat.FRAME_HEADER_SIZE + blockSize + (blockSize >> 4) + 64];
+        this.frameBuffer = ByteBuffer.wrap(frame);
+        // Worst case UTF-8 expansion is 3 bytes per UTF-16 char
+        this.maxLineChars = (blockSize - RecordingFormat.RECORD_HEADER_SIZE) / 3;
+
+        this.data = FileChannel.open(dataFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            this.index = FileChannel.open(indexFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            data.close();
+            throw e;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(RecordingFormat.FILE_HEADER_SIZE);
+        header.putInt(RecordingFormat.MAGIC).putInt(RecordingFormat.VERSION).flip();
+        writeFully(data, header);
+        this.dataPosition = RecordingFormat.FILE_HEADER_SIZE;
+    }
+
+    /**
+     * Appends one output line. Lines longer than a block can hold are truncated.
+     *
+     * @throws IOException if an earlier block could not be written
+     */
+    public synchronized void append(long timestamp, String line) throws IOException {
+        if (closed) {
+            return;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        int chars = Math.min(line.length(), maxLineChars);
+        int worstCase = RecordingFormat.RECORD_HEADER_SIZE + chars * 3;
+
+        if (blockStart >= 0
+                && (blockLength + worstCase > block.length || timestamp - blockStart > Integer.MAX_VALUE)) {
+            seal(true);
+        }
+        if (blockStart < 0) {
+            blockStart = timestamp;
+        }
+
+        int offset = (int) Math.max(0, timestamp - blockStart);
+        int bytesStart = blockLength + RecordingFormat.RECORD_HEADER_SIZE;
+        int bytesEnd = encodeUtf8(line, chars, block, bytesStart);
+
+        putInt(block, blockLength, offset);
+        putInt(block, blockLength + 4, bytesEnd - bytesStart);
+        blockLength = bytesEnd;
+    }
+
+    /**
+     * Hands off the pending block if it was started more than {@code maxAgeMillis} ago. Never
+     * waits: if the previous block is still being written, the check is left to the next call.
+     */
+    public synchronized void flushIfOlderThan(long now, long maxAgeMillis) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (!closed && blockStart >= 0 && now - blockStart >= maxAgeMillis && spare != null) {
+            seal(false);
+        }
+    }
+
+    /**
+     * Hands off the last block; the files are closed once it has been written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (blockStart >= 0 && failure == null) {
+                seal(true);
+            }
+        } finally {
+            if (spare != null) {
+                closeChannels();
+            }
+        }
+    }
+
+    /**
+     * Swaps in the spare block and schedules the full one for writing. Caller holds the monitor.
+     */
+    private void seal(boolean waitForSpare) throws IOException {
+        while (spare == null && failure == null && waitForSpare) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for recording block");
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        byte[] sealed = block;
+        int length = blockLength;
+        long start = blockStart;
+        block = spare;
+        spare = null;
+        blockLength = 0;
+        blockStart = -1;
+        try {
+            io.execute(() -> write(sealed, length, start));
+        } catch (RejectedExecutionException e) {
+            write(sealed, length, start); // executor shut down: finish on the caller
+        }
+    }
+
+    private void write(byte[] sealed, int length, long start) {
+        try {
+            writeFrame(sealed, length, start);
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+            }
+        } finally {
+            synchronized (this) {
+                spare = sealed;
+                if (closed && blockStart < 0) {
+                    // close() has handed off its last block, and this was it
+                    closeChannels();
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private void writeFrame(byte[] sealed, int length, long start) throws IOException {
+        deflater.reset();
+        deflater.setInput(sealed, 0, length);
+        deflater.finish();
+        int compressed = 0;
+        int capacity = frame.length - RecordingFormat.FRAME_HEADER_SIZE;
+        while (!deflater.finished() && compressed < capacity) {
+            compressed += deflater.deflate(frame, RecordingFormat.FRAME_HEADER_SIZE + compressed, capacity - compressed);
+        }
+
+        frameBuffer.clear();
+        frameBuffer.putInt(compressed).putInt(length).putLong(start);
+        frameBuffer.position(0).limit(RecordingFormat.FRAME_HEADER_SIZE + compressed);
+        long frameOffset = dataPosition;
+        writeFully(data, frameBuffer);
+        dataPosition += RecordingFormat.FRAME_HEADER_SIZE + compressed;
+
+        indexBuffer.clear();
+        indexBuffer.putLong(start).putLong(frameOffset).flip();
+        writeFully(index, indexBuffer);
+    }
+
+    private void closeChannels() {
+        if (channelsClosed) {
+            return;
+        }
+        channelsClosed = true;
+        deflater.end();
+        try {
+            data.close();
+        } catch (IOException e) {
+            failure = e;
+        }
+        try {
+            index.close();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void putInt(byte[] dst, int pos, int value) {
+        dst[pos] = (byte) (value >>> 24);
+        dst[pos + 1] = (byte) (value >>> 16);
+        dst[pos + 2] = (byte) (value >>> 8);
+        dst[pos + 3] = (byte) value;
+    }
+
+    private static int encodeUtf8(String s, int chars, byte[] dst, int pos) {
+        for (int i = 0; i < chars; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                dst[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[pos++] = (byte) (0xC0 | (c >> 6));
+                dst[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                dst[pos++] = (byte) (0xF0 | (cp >> 18));
+                dst[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                dst[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                dst[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                dst[pos++] = (byte) '?';
+            } else {
+                dst[pos++] = (byte) (0xE0 | (c >> 12));
+                dst[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dst[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+}
@@ -10,5 +10,6 @@ import java.util.List;
 public interface AlertRepository extends MongoRepository<Alert, String> {
     List<Alert> findByStatus(String status);
     List<Alert> findByDeviceId(String deviceId);
+    List<Alert> findByStatusNot(String status);
 }
 
@@ -9,5 +9,6 @@ import java.util.List;
 @Repository
 public interface LogRepository extends MongoRepository<Log, String> {
     List<Log> findByDeviceId(String deviceId);
+    List<Log> findTop100ByOrderByTimestampDesc();
 }
 
@@ -4,7 +4,10 @@ import com.dids.model.Policy;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PolicyRepository extends MongoRepository<Policy, String> {
+    List<Policy> findByActiveTrue();
 }
 
@@ -0,0 +1,37 @@
+package com.dids.security;
+
+import com.dids.model.Policy;
+import com.dids.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached authorisation decisions when a user or policy is saved or deleted through Spring Data.
+ * Template updates and bulk writes raise no events; those are covered by the cache TTL in {@link AuthorizationService}.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthorizationCacheInvalidator extends AbstractMongoEventListener<Object> {
+
+    private final AuthorizationService authorizationService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        if (event.getSource() instanceof User user) {
+            authorizationService.invalidateUser(user.getUsername());
+        } else if (event.getSource() instanceof Policy) {
+            authorizationService.invalidateAll();
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        // Only the id is known after a delete, so drop everything
+        if (User.class.equals(event.getType()) || Policy.class.equals(event.getType())) {
+            authorizationService.invalidateAll();
+        }
+    }
+}
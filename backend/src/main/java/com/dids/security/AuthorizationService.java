@@ -0,0 +1,219 @@
+package com.dids.security;
+
+import com.dids.config.JwtConfig;
+import com.dids.model.Policy;
+import com.dids.model.User;
+import com.dids.repository.PolicyRepository;
+import com.dids.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Resolves a token's role and per-device permissions once and caches the result per token.
+ * The cache is invalidated when users or policies are saved or deleted through Spring Data (see
+ * {@link AuthorizationCacheInvalidator}), so a cached lookup never goes to Mongo. Writes that bypass
+ * those events (template updates, bulk writes, other processes) are picked up once an entry is older
+ * than {@code security.authorization.cache-ttl-ms}; code making such writes should call {@link #invalidateAll()}.
+ *
+ * Administrators may access every device. Other roles may access the devices listed on their user
+ * ({@link User#getDeviceIds()}), or every device deployed under an active policy when the user has no list.
+ */
+@Service
+@Slf4j
+public class AuthorizationService {
+
+    private static final long ALL_PERMISSIONS = Permission.mask(Permission.values());
+
+    private static final Role VIEWER = new Role(Permission.mask(Permission.VIEW), DeviceScope.ASSIGNED);
+
+    private static final Map<String, Role> ROLES = Map.of(
+            "administrator", new Role(ALL_PERMISSIONS, DeviceScope.ALL),
+            "admin", new Role(ALL_PERMISSIONS, DeviceScope.ALL),
+            "operator", new Role(Permission.mask(Permission.VIEW, Permission.RUN_COMMANDS, Permission.BROADCAST_COMMANDS,
+                    Permission.VIEW_RECORDINGS, Permission.MANAGE_ALERTS), DeviceScope.ASSIGNED),
+            "analyst", new Role(Permission.mask(Permission.VIEW, Permission.VIEW_RECORDINGS, Permission.MANAGE_ALERTS),
+                    DeviceScope.ASSIGNED),
+            "viewer", VIEWER,
+            "agent", new Role(Permission.mask(Permission.INGEST_LOGS), DeviceScope.ASSIGNED)
+    );
+
+    /**
+     * Which devices a role may act on, independent of its permissions.
+     */
+    enum DeviceScope {
+        /** Every device, including ones registered later */
+        ALL,
+        /** The user's own device list, or devices deployed under an active policy if it has none */
+        ASSIGNED
+    }
+
+    private record Role(long permissions, DeviceScope devices) {
+    }
+
+    private record Cached(UserPermissions permissions, long resolvedAt) {
+    }
+
+    private final UserRepository userRepository;
+    private final PolicyRepository policyRepository;
+    private final DeviceIndex deviceIndex;
+    private final JwtConfig jwtConfig;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${security.authorization.cache-size:10000}")
+    private int maxCacheSize;
+
+    @Value("${security.authorization.cache-ttl-ms:60000}")
+    private long cacheTtlMs;
+
+    public AuthorizationService(UserRepository userRepository, PolicyRepository policyRepository,
+                                DeviceIndex deviceIndex, JwtConfig jwtConfig) {
+        this.userRepository = userRepository;
+        this.policyRepository = policyRepository;
+        this.deviceIndex = deviceIndex;
+        this.jwtConfig = jwtConfig;
+    }
+
+    /**
+     * Verifies the token and returns its permissions, or null if the token is invalid, expired
+     * or belongs to an unknown user.
+     */
+    public UserPermissions authenticate(String token) {
+        long now = System.currentTimeMillis();
+        Cached cached = cache.get(token);
+        if (cached != null) {
+            if (cached.permissions().isExpired(now)) {
+                cache.remove(token, cached);
+                return null;
+            }
+            if (now - cached.resolvedAt() < cacheTtlMs) {
+                return cached.permissions();
+            }
+            cache.remove(token, cached); // resolve again below
+        }
+
+        Claims claims;
+        try {
+            claims = jwtConfig.extractClaim(token, Function.identity());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected token: {}", e.getMessage());
+            return null;
+        }
+
+        long resolvedAt = generation.get();
+        Optional<User> user = userRepository.findByUsername(claims.getSubject());
+        if (user.isEmpty()) {
+            return null;
+        }
+        UserPermissions permissions = resolve(user.get(), claims.getExpiration().getTime());
+
+        if (cache.size() >= maxCacheSize) {
+            cache.values().removeIf(c -> c.permissions().isExpired(now) || now - c.resolvedAt() >= cacheTtlMs);
+            if (cache.size() >= maxCacheSize) {
+                cache.clear();
+            }
+        }
+        Cached entry = new Cached(permissions, now);
+        cache.put(token, entry);
+        // A user or policy change raced with this resolution; don't keep a stale decision
+        if (generation.get() != resolvedAt) {
+            cache.remove(token, entry);
+        }
+        return permissions;
+    }
+
+    /**
+     * Current permissions behind a principal created by {@link #toAuthentication}. Looked up again on
+     * every call so long-lived STOMP sessions observe invalidations.
+     */
+    public UserPermissions permissionsFor(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getCredentials() instanceof String token) {
+            return authenticate(token);
+        }
+        return null;
+    }
+
+    public Authentication toAuthentication(UserPermissions permissions, String token) {
+        return new UsernamePasswordAuthenticationToken(permissions, token, permissions.getAuthorities());
+    }
+
+    public void invalidateUser(String username) {
+        generation.incrementAndGet();
+        cache.values().removeIf(c -> c.permissions().getUsername().equals(username));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private UserPermissions resolve(User user, long expiresAt) {
+        String role = user.getRole() == null ? "viewer" : user.getRole().trim().toLowerCase(Locale.ROOT);
+        Role grant = ROLES.getOrDefault(role, VIEWER);
+        long bits = grant.permissions();
+        boolean allDevices = grant.devices() == DeviceScope.ALL;
+
+        long[] deviceBits = new long[0];
+        if (!allDevices) {
+            List<String> deviceIds = user.getDeviceIds();
+            if (deviceIds == null) {
+                deviceIds = new ArrayList<>();
+                for (Policy policy : policyRepository.findByActiveTrue()) {
+                    if (policy.getDeployedDevices() != null) {
+                        deviceIds.addAll(policy.getDeployedDevices());
+                    }
+                }
+            }
+            deviceBits = deviceBits(deviceIds);
+        }
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase(Locale.ROOT)));
+        for (Permission permission : Permission.values()) {
+            if ((bits & permission.bit()) != 0) {
+                authorities.add(new SimpleGrantedAuthority(permission.name()));
+            }
+        }
+
+        return new UserPermissions(user.getUsername(), role, bits, allDevices, deviceBits, expiresAt,
+                Collections.unmodifiableList(authorities), deviceIndex);
+    }
+
+    private long[] deviceBits(List<String> deviceIds) {
+        List<Integer> slots = new ArrayList<>();
+        int maxSlot = -1;
+        for (String deviceId : deviceIds) {
+            if (deviceId == null) {
+                continue;
+            }
+            int slot = deviceIndex.register(deviceId);
+            slots.add(slot);
+            maxSlot = Math.max(maxSlot, slot);
+        }
+        long[] bits = new long[maxSlot < 0 ? 0 : (maxSlot >>> 6) + 1];
+        for (int slot : slots) {
+            bits[slot >>> 6] |= 1L << slot;
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,33 @@
+package com.dids.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns every device id a dense, stable int slot so per-device permissions can be kept in a bitset.
+ * Slots are never reused, so a bitset built earlier stays valid as new devices appear.
+ */
+@Component
+public class DeviceIndex {
+
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    public int register(String deviceId) {
+        return slots.computeIfAbsent(deviceId, id -> nextSlot.getAndIncrement());
+    }
+
+    /**
+     * @return the device's slot, or -1 if it has never been registered
+     */
+    public int slotOf(String deviceId) {
+        if (deviceId == null) {
+            return -1;
+        }
+        Integer slot = slots.get(deviceId);
+        return slot != null ? slot : -1;
+    }
+}
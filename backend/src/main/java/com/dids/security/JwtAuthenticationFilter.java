@@ -0,0 +1,40 @@
+package com.dids.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates "Authorization: Bearer" requests. The principal is the token's cached
+ * {@link UserPermissions}, so controllers and {@code @PreAuthorize} checks never hit Mongo.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final AuthorizationService authorizationService;
+
+    public JwtAuthenticationFilter(AuthorizationService authorizationService) {
+        this.authorizationService = authorizationService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            String token = header.substring(BEARER_PREFIX.length());
+            UserPermissions permissions = authorizationService.authenticate(token);
+            if (permissions != null) {
+                SecurityContextHolder.getContext().setAuthentication(
+                        authorizationService.toAuthentication(permissions, token));
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,29 @@
+package com.dids.security;
+
+/**
+ * Fine-grained permissions. Each constant owns one bit of {@link UserPermissions#getPermissionBits()},
+ * and its name doubles as the Spring Security authority, e.g. {@code hasAuthority('RUN_COMMANDS')}.
+ */
+public enum Permission {
+    VIEW,
+    RUN_COMMANDS,
+    BROADCAST_COMMANDS,
+    VIEW_RECORDINGS,
+    MANAGE_ALERTS,
+    MANAGE_POLICIES,
+    MANAGE_USERS,
+    INGEST_LOGS,
+    MANAGE_ARCHIVES;
+
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    public static long mask(Permission... permissions) {
+        long mask = 0;
+        for (Permission permission : permissions) {
+            mask |= permission.bit();
+        }
+        return mask;
+    }
+}
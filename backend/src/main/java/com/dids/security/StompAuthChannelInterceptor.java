@@ -0,0 +1,107 @@
+package com.dids.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Requires a valid bearer token in the STOMP CONNECT frame and binds the resulting
+ * authentication to the WebSocket session as its user.
+ *
+ * Subscriptions are checked against an allowlist of broker destinations: a device's terminal,
+ * replay or alert topic requires access to that device (replays also VIEW_RECORDINGS), a broadcast's
+ * topic is limited to the user who started it, and destinations outside the allowlist are denied.
+ * Patterns are rejected outright, because the simple broker would match them against every
+ * device's topic. Clients may only SEND to application destinations, never straight to the broker.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String APP_PREFIX = "/app/";
+    private static final String TERMINAL_TOPIC = "/topic/terminal/";
+    private static final String REPLAY_TOPIC = "/topic/terminal/replay/";
+    private static final String BROADCAST_TOPIC = "/topic/broadcast/";
+    private static final String ALERTS_TOPIC = "/topic/alerts";
+    private static final String ALERT_TRIAGE_TOPIC = "/topic/alerts/triage";
+    private static final String DEVICE_ALERTS_TOPIC = "/topic/alerts/device/";
+
+    private final AuthorizationService authorizationService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String header = accessor.getFirstNativeHeader("Authorization");
+            String token = header != null && header.startsWith(BEARER_PREFIX)
+                    ? header.substring(BEARER_PREFIX.length())
+                    : null;
+            UserPermissions permissions = token != null ? authorizationService.authenticate(token) : null;
+            if (permissions == null) {
+                throw new MessageDeliveryException("Unauthorized");
+            }
+            accessor.setUser(authorizationService.toAuthentication(permissions, token));
+        } else if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            UserPermissions permissions = authorizationService.permissionsFor(accessor.getUser());
+            if (permissions == null || !maySubscribe(accessor.getDestination(), permissions)) {
+                throw new MessageDeliveryException("Access denied to " + accessor.getDestination());
+            }
+        } else if (accessor != null && StompCommand.SEND.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            if (destination == null || !destination.startsWith(APP_PREFIX)) {
+                throw new MessageDeliveryException("Access denied to " + destination);
+            }
+        }
+        return message;
+    }
+
+    static boolean maySubscribe(String destination, UserPermissions permissions) {
+        if (destination == null || isPattern(destination)) {
+            return false;
+        }
+        if (destination.startsWith(REPLAY_TOPIC)) {
+            // replays are started and audited under VIEW_RECORDINGS; watching one needs the same
+            return permissions.has(Permission.VIEW_RECORDINGS)
+                    && mayAccessDevice(destination.substring(REPLAY_TOPIC.length()), permissions);
+        }
+        if (destination.startsWith(TERMINAL_TOPIC)) {
+            return mayAccessDevice(destination.substring(TERMINAL_TOPIC.length()), permissions);
+        }
+        if (destination.startsWith(DEVICE_ALERTS_TOPIC)) {
+            return permissions.has(Permission.VIEW)
+                    && mayAccessDevice(destination.substring(DEVICE_ALERTS_TOPIC.length()), permissions);
+        }
+        if (destination.startsWith(BROADCAST_TOPIC)) {
+            // /topic/broadcast/{username}/{broadcastId}: results are filtered to the starter's devices
+            String rest = destination.substring(BROADCAST_TOPIC.length());
+            int slash = rest.indexOf('/');
+            return slash > 0 && isSegment(rest.substring(slash + 1))
+                    && rest.substring(0, slash).equals(permissions.getUsername())
+                    && permissions.has(Permission.BROADCAST_COMMANDS);
+        }
+        if (destination.equals(ALERTS_TOPIC) || destination.equals(ALERT_TRIAGE_TOPIC)) {
+            // these carry every device's alerts
+            return permissions.has(Permission.VIEW) && permissions.isAllDevices();
+        }
+        return false;
+    }
+
+    private static boolean mayAccessDevice(String deviceId, UserPermissions permissions) {
+        return isSegment(deviceId) && permissions.canAccessDevice(deviceId);
+    }
+
+    private static boolean isPattern(String destination) {
+        return destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0;
+    }
+
+    private static boolean isSegment(String value) {
+        return !value.isEmpty() && value.indexOf('/') < 0;
+    }
+}
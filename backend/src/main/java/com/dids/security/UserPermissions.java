@@ -0,0 +1,71 @@
+package com.dids.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Authorisation decisions for one verified token, resolved once and cached by {@link AuthorizationService}.
+ * Permission checks are plain bit tests: O(1) and allocation-free.
+ */
+@Getter
+public class UserPermissions {
+
+    private final String username;
+    private final String role;
+    private final long permissionBits;
+    private final boolean allDevices;
+    private final long[] deviceBits;
+    private final long expiresAt;
+    private final List<GrantedAuthority> authorities;
+
+    private final DeviceIndex deviceIndex;
+    private final String fingerprint;
+
+    public UserPermissions(String username, String role, long permissionBits, boolean allDevices, long[] deviceBits,
+                           long expiresAt, List<GrantedAuthority> authorities, DeviceIndex deviceIndex) {
+        this.username = username;
+        this.role = role;
+        this.permissionBits = permissionBits;
+        this.allDevices = allDevices;
+        this.deviceBits = deviceBits;
+        this.expiresAt = expiresAt;
+        this.authorities = authorities;
+        this.deviceIndex = deviceIndex;
+        long hash = permissionBits * 31 + (allDevices ? 1 : 0);
+        for (long word : deviceBits) {
+            hash = hash * 0x9E3779B97F4A7C15L + word;
+        }
+        this.fingerprint = Long.toHexString(hash);
+    }
+
+    /**
+     * Short hash of the permissions and device scope, so views cached per user (e.g. dashboard
+     * ETags) change when the user's access does.
+     */
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    public boolean has(Permission permission) {
+        return (permissionBits & permission.bit()) != 0;
+    }
+
+    public boolean canAccessDevice(String deviceId) {
+        if (allDevices) {
+            return true;
+        }
+        int slot = deviceIndex.slotOf(deviceId);
+        int word = slot >>> 6;
+        return slot >= 0 && word < deviceBits.length && (deviceBits[word] & (1L << slot)) != 0;
+    }
+
+    public boolean canRunCommands(String deviceId) {
+        return has(Permission.RUN_COMMANDS) && canAccessDevice(deviceId);
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
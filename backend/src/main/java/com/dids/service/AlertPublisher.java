@@ -0,0 +1,41 @@
+package com.dids.service;
+
+import com.dids.model.Alert;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Announces raised alerts over STOMP: the whole batch on /topic/alerts, which only users who see
+ * every device may subscribe to, and each device's share on /topic/alerts/device/{deviceId} for
+ * users bound to that device.
+ */
+@Component
+@RequiredArgsConstructor
+public class AlertPublisher {
+
+    public static final String ALERTS_TOPIC = "/topic/alerts";
+    public static final String DEVICE_ALERTS_TOPIC = "/topic/alerts/device/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public void publish(List<Alert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        messagingTemplate.convertAndSend(ALERTS_TOPIC, alerts);
+        Map<String, List<Alert>> byDevice = new LinkedHashMap<>();
+        for (Alert alert : alerts) {
+            if (alert.getDeviceId() != null) {
+                byDevice.computeIfAbsent(alert.getDeviceId(), k -> new ArrayList<>()).add(alert);
+            }
+        }
+        byDevice.forEach((deviceId, deviceAlerts) ->
+                messagingTemplate.convertAndSend(DEVICE_ALERTS_TOPIC + deviceId, deviceAlerts));
+    }
+}
@@ -0,0 +1,181 @@
+package com.dids.service;
+
+import com.dids.dto.AlertTriageRequest;
+import com.dids.dto.AlertTriageResult;
+import com.dids.model.Alert;
+import com.dids.model.Log;
+import com.dids.repository.AlertRepository;
+import com.dids.repository.LogRepository;
+import com.dids.security.UserPermissions;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves many alerts to a new status in one server-side write. The run is recorded as an audit log
+ * entry and announced with a single compact message on /topic/alerts/triage: the new status, the
+ * counts, the affected devices and the dashboard version that includes the change. Subscribers
+ * fetch the changed alerts as a dashboard delta; the affected ids are only returned to the caller.
+ */
+@Service
+@Slf4j
+public class AlertTriageService {
+
+    private final MongoTemplate mongoTemplate;
+    private final AlertRepository alertRepository;
+    private final LogRepository logRepository;
+    private final DashboardService dashboardService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${alerts.triage.max-alerts:100000}")
+    private int maxAlerts;
+
+    public AlertTriageService(MongoTemplate mongoTemplate,
+                              AlertRepository alertRepository,
+                              LogRepository logRepository,
+                              DashboardService dashboardService,
+                              SimpMessagingTemplate messagingTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.alertRepository = alertRepository;
+        this.logRepository = logRepository;
+        this.dashboardService = dashboardService;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public AlertTriageResult triage(AlertTriageRequest request, UserPermissions user) {
+        Criteria criteria = selection(request).and("status").ne(request.getStatus());
+
+        // One narrow read (id and device only) pins down exactly which alerts this run changes
+        Query matchQuery = new Query(criteria);
+        matchQuery.fields().include("_id").include("deviceId");
+        matchQuery.limit(maxAlerts + 1);
+        List<String> ids = new ArrayList<>();
+        Set<String> deviceIds = new LinkedHashSet<>();
+        List<Alert> matched = mongoTemplate.find(matchQuery, Alert.class);
+        if (matched.size() > maxAlerts) {
+            throw new IllegalArgumentException("Selection matches more than " + maxAlerts + " alerts; narrow the filter");
+        }
+        for (Alert alert : matched) {
+            String deviceId = alert.getDeviceId();
+            if (user != null && !user.isAllDevices() && (deviceId == null || !user.canAccessDevice(deviceId))) {
+                continue;
+            }
+            ids.add(alert.getId());
+            if (deviceId != null) {
+                deviceIds.add(deviceId);
+            }
+        }
+
+        long modified = 0;
+        if (!ids.isEmpty()) {
+            UpdateResult result = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("_id").in(ids).and("status").ne(request.getStatus())),
+                    Update.update("status", request.getStatus()),
+                    Alert.class);
+            modified = result.getModifiedCount();
+            updateDashboard(ids, request.getStatus());
+        }
+        long dashboardVersion = dashboardService.currentVersion();
+
+        String username = user != null ? user.getUsername() : null;
+        AlertTriageResult result = new AlertTriageResult(request.getStatus(), ids.size(), modified, ids,
+                new ArrayList<>(deviceIds), dashboardVersion, username, LocalDateTime.now());
+        audit(request, result);
+        // the id list can run to max-alerts entries; every subscriber gets the summary only
+        messagingTemplate.convertAndSend("/topic/alerts/triage", new AlertTriageResult(result.getStatus(),
+                result.getMatched(), result.getModified(), null, result.getDeviceIds(), dashboardVersion,
+                username, result.getTimestamp()));
+        log.info("{} moved {} alerts on {} devices to {}", username, modified, deviceIds.size(), request.getStatus());
+        return result;
+    }
+
+    private Criteria selection(AlertTriageRequest request) {
+        Criteria criteria = new Criteria();
+        boolean selective = false;
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            criteria.and("_id").in(request.getIds());
+            selective = true;
+        }
+        if (request.getDeviceId() != null) {
+            criteria.and("deviceId").is(request.getDeviceId());
+            selective = true;
+        }
+        if (request.getType() != null) {
+            criteria.and("type").is(request.getType());
+            selective = true;
+        }
+        if (request.getSeverity() != null) {
+            criteria.and("severity").is(request.getSeverity());
+            selective = true;
+        }
+        if (request.getFrom() != null || request.getTo() != null) {
+            Criteria timestamp = criteria.and("timestamp");
+            if (request.getFrom() != null) {
+                timestamp.gte(request.getFrom());
+            }
+            if (request.getTo() != null) {
+                timestamp.lt(request.getTo());
+            }
+            selective = true;
+        }
+        if (!selective) {
+            throw new IllegalArgumentException("Provide alert ids or at least one filter (deviceId, type, severity, from, to)");
+        }
+        return criteria;
+    }
+
+    /**
+     * The write above bypasses repository events, so hand the changes to the dashboard cache.
+     */
+    private void updateDashboard(List<String> ids, String status) {
+        if ("resolved".equals(status)) {
+            dashboardService.alertsRemoved(ids);
+        } else {
+            dashboardService.alertsSaved(alertRepository.findAllById(ids));
+        }
+    }
+
+    private void audit(AlertTriageRequest request, AlertTriageResult result) {
+        StringBuilder message = new StringBuilder()
+                .append(result.getTriagedBy()).append(" set ").append(result.getModified())
+                .append(" alert(s) to ").append(result.getStatus());
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            message.append(" ids=").append(request.getIds().size());
+        }
+        appendFilter(message, "deviceId", request.getDeviceId());
+        appendFilter(message, "type", request.getType());
+        appendFilter(message, "severity", request.getSeverity());
+        appendFilter(message, "from", request.getFrom());
+        appendFilter(message, "to", request.getTo());
+        if (request.getNote() != null && !request.getNote().isBlank()) {
+            message.append(" note=\"").append(request.getNote().strip()).append('"');
+        }
+
+        Log audit = new Log();
+        audit.setEvent("alert_triage");
+        audit.setLevel("info");
+        audit.setProgram("dids");
+        audit.setUser(result.getTriagedBy());
+        audit.setTimestamp(result.getTimestamp());
+        audit.setMessage(message.toString());
+        logRepository.save(audit);
+    }
+
+    private static void appendFilter(StringBuilder message, String name, Object value) {
+        if (value != null) {
+            message.append(' ').append(name).append('=').append(value);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.dids.service;
+
+import com.dids.anomaly.Anomaly;
+import com.dids.anomaly.AnomalyDetector;
+import com.dids.model.Alert;
+import com.dids.model.Log;
+import com.dids.repository.AlertRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds ingested logs into the per-device {@link AnomalyDetector} and raises "anomaly" alerts when
+ * a device's event rate or failure ratio (errors and authentication failures) leaves its baseline.
+ * Baselines are snapshotted to disk periodically and on shutdown, and restored on startup.
+ */
+@Service
+@Slf4j
+public class AnomalyService {
+
+    private static final Set<String> FAILURE_EVENTS = Set.of(
+            "ssh_login_failed", "ssh_invalid_user", "ssh_auth_failure",
+            "sudo_auth_failure", "sudo_denied",
+            "win_logon_failed", "win_account_locked");
+
+    private final AlertRepository alertRepository;
+    private final AlertPublisher alertPublisher;
+    private AnomalyDetector detector;
+    private ScheduledExecutorService snapshotter;
+
+    @Value("${anomaly.enabled:true}")
+    private boolean enabled;
+
+    @Value("${anomaly.max-devices:65536}")
+    private int maxDevices;
+
+    @Value("${anomaly.window-seconds:60}")
+    private long windowSeconds;
+
+    @Value("${anomaly.alpha:0.05}")
+    private double alpha;
+
+    @Value("${anomaly.warmup-windows:30}")
+    private int warmupWindows;
+
+    @Value("${anomaly.min-events:20}")
+    private int minEvents;
+
+    @Value("${anomaly.z.medium:3}")
+    private double mediumZ;
+
+    @Value("${anomaly.z.high:5}")
+    private double highZ;
+
+    @Value("${anomaly.z.critical:8}")
+    private double criticalZ;
+
+    @Value("${anomaly.snapshot.file:anomaly-baselines.bin}")
+    private String snapshotFile;
+
+    @Value("${anomaly.snapshot.interval-seconds:300}")
+    private long snapshotIntervalSeconds;
+
+    public AnomalyService(AlertRepository alertRepository, AlertPublisher alertPublisher) {
+        this.alertRepository = alertRepository;
+        this.alertPublisher = alertPublisher;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        detector = new AnomalyDetector(maxDevices, TimeUnit.SECONDS.toMillis(windowSeconds), alpha,
+                warmupWindows, minEvents, mediumZ, highZ, criticalZ);
+        restoreSnapshot();
+        snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "anomaly-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        snapshotter.scheduleWithFixedDelay(this::writeSnapshot,
+                snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (snapshotter != null) {
+            snapshotter.shutdownNow();
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Counts a batch of stored logs against their devices' baselines and saves an alert for each
+     * anomaly.
+     *
+     * @return the alerts raised
+     */
+    public List<Alert> observe(List<Log> logs) {
+        if (detector == null) {
+            return List.of();
+        }
+        long now = System.currentTimeMillis();
+        List<Alert> alerts = null;
+        for (Log entry : logs) {
+            if (entry.getDeviceId() == null) {
+                continue;
+            }
+            boolean failure = "error".equals(entry.getLevel()) || FAILURE_EVENTS.contains(entry.getEvent());
+            Anomaly anomaly = detector.record(entry.getDeviceId(), eventTime(entry, now), failure);
+            if (anomaly != null) {
+                if (alerts == null) {
+                    alerts = new ArrayList<>();
+                }
+                alerts.add(toAlert(anomaly, entry));
+            }
+        }
+        if (alerts == null) {
+            return List.of();
+        }
+        List<Alert> saved = alertRepository.saveAll(alerts);
+        alertPublisher.publish(saved);
+        return saved;
+    }
+
+    /**
+     * When the event happened, so a backlog delivered late is counted in the windows it belongs to.
+     * Parsed timestamps are UTC; a device clock running ahead is capped at the current time.
+     */
+    private static long eventTime(Log entry, long now) {
+        if (entry.getTimestamp() == null) {
+            return now;
+        }
+        return Math.min(entry.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli(), now);
+    }
+
+    private Alert toAlert(Anomaly anomaly, Log entry) {
+        Alert alert = new Alert();
+        alert.setDeviceId(anomaly.getDeviceId());
+        alert.setDeviceName(entry.getDeviceName());
+        alert.setType("anomaly");
+        alert.setSeverity(anomaly.getSeverity());
+        alert.setStatus("open");
+        alert.setTimestamp(LocalDateTime.now());
+        if (anomaly.getKind() == Anomaly.Kind.EVENT_RATE) {
+            alert.setDescription(String.format(Locale.ROOT,
+                    "Event rate spike: %.0f events in the current %d s window, baseline %.1f (z=%.1f)",
+                    anomaly.getObserved(), windowSeconds, anomaly.getExpected(), anomaly.getZScore()));
+        } else {
+            alert.setDescription(String.format(Locale.ROOT,
+                    "Failure ratio spike: %.0f%% of events are errors or auth failures, baseline %.0f%% (z=%.1f)",
+                    anomaly.getObserved() * 100, anomaly.getExpected() * 100, anomaly.getZScore()));
+        }
+        return alert;
+    }
+
+    private void restoreSnapshot() {
+        Path file = Paths.get(snapshotFile);
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            log.info("Restored anomaly baselines for {} devices", detector.readSnapshot(in));
+        } catch (IOException e) {
+            log.warn("Ignoring anomaly baseline snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private synchronized void writeSnapshot() {
+        Path file = Paths.get(snapshotFile).toAbsolutePath();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                detector.writeSnapshot(out);
+            }
+            // readers only ever see a complete snapshot
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Could not write anomaly baseline snapshot {}: {}", file, e.getMessage());
+        }
+    }
+}
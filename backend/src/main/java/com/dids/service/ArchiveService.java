@@ -0,0 +1,498 @@
+package com.dids.service;
+
+import com.dids.archive.ArchiveFormat;
+import com.dids.archive.ChunkBuilder;
+import com.dids.archive.ChunkReader;
+import com.dids.dto.ArchiveExportRequest;
+import com.dids.dto.ArchiveImportResult;
+import com.dids.model.Alert;
+import com.dids.model.Log;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.zip.ZipException;
+
+/**
+ * Streams the logs and alerts collections to and from compressed archives (see {@link ArchiveFormat}).
+ *
+ * Export splits each collection into ranges of _id creation time and reads them on parallel
+ * cursors; every reader compresses its own chunks and hands them to the request thread, which only
+ * writes bytes. Import reads the archive one gzip member at a time ({@link ChunkReader}), parses
+ * chunks on the request thread and inserts them with parallel unordered
+ * bulk writes, keeping _id so that a re-run skips documents already present. Both directions hold a
+ * bounded number of chunks in memory regardless of archive size.
+ *
+ * Export readers and import writers run on separate pools, and one request uses fewer threads than
+ * its pool has: readers of a slow download block until the client catches up, and must not starve
+ * other exports or any import.
+ */
+@Service
+@Slf4j
+public class ArchiveService {
+
+    private static final byte[] READER_DONE = new byte[0];
+
+    private final MongoTemplate mongoTemplate;
+    private final DashboardService dashboardService;
+    private final ExecutorService exportReaders;
+    private final ExecutorService importWriters;
+    private final int exportWorkers;
+    private final int importWorkers;
+    private final List<String> archivable;
+
+    @Value("${archive.export.partitions:4}")
+    private int partitions;
+
+    @Value("${archive.export.chunk-documents:5000}")
+    private int chunkDocuments;
+
+    @Value("${archive.export.chunk-bytes:4194304}")
+    private int chunkBytes;
+
+    @Value("${archive.export.cursor-batch-size:2000}")
+    private int cursorBatchSize;
+
+    @Value("${archive.export.readers-per-request:4}")
+    private int readersPerRequest;
+
+    @Value("${archive.import.parallelism:4}")
+    private int importParallelism;
+
+    @Value("${archive.import.max-chunk-documents:50000}")
+    private int maxImportChunkDocuments;
+
+    @Value("${archive.import.max-chunk-bytes:33554432}")
+    private int maxImportChunkBytes;
+
+    public ArchiveService(MongoTemplate mongoTemplate,
+                          DashboardService dashboardService,
+                          @Value("${archive.export.workers:8}") int exportWorkers,
+                          @Value("${archive.import.workers:8}") int importWorkers) {
+        this.mongoTemplate = mongoTemplate;
+        this.dashboardService = dashboardService;
+        this.archivable = List.of(mongoTemplate.getCollectionName(Log.class),
+                mongoTemplate.getCollectionName(Alert.class));
+        this.exportWorkers = exportWorkers;
+        this.importWorkers = importWorkers;
+        this.exportReaders = pool(exportWorkers, "archive-reader");
+        this.importWriters = pool(importWorkers, "archive-writer");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        exportReaders.shutdownNow();
+        importWriters.shutdownNow();
+    }
+
+    /**
+     * Checks an export request before any bytes are streamed, so that bad input still gets a 400.
+     *
+     * @return the collections to export, in archive order
+     */
+    public List<String> validate(ArchiveExportRequest request) {
+        if (request.getFrom() != null && request.getTo() != null && !request.getFrom().isBefore(request.getTo())) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (request.getCollections() == null || request.getCollections().isEmpty()) {
+            return archivable;
+        }
+        List<String> collections = new ArrayList<>();
+        for (String collection : request.getCollections()) {
+            if (!archivable.contains(collection)) {
+                throw new IllegalArgumentException("Unknown collection '" + collection + "'; expected one of " + archivable);
+            }
+            if (!collections.contains(collection)) {
+                collections.add(collection);
+            }
+        }
+        return collections;
+    }
+
+    /**
+     * Writes the selected documents to {@code out} as an archive. The stream is not closed.
+     */
+    public void export(ArchiveExportRequest request, OutputStream out) throws IOException {
+        List<String> collections = validate(request);
+        long started = System.currentTimeMillis();
+
+        List<Query> queries = new ArrayList<>();
+        List<String> targets = new ArrayList<>();
+        for (String collection : collections) {
+            Criteria selection = selection(request);
+            for (Criteria range : partition(selection, collection)) {
+                Query query = new Query(range).with(Sort.by(Sort.Direction.ASC, "_id"));
+                query.cursorBatchSize(cursorBatchSize);
+                queries.add(query);
+                targets.add(collection);
+            }
+        }
+
+        // Readers take partitions in turn; two chunks per reader in flight keeps the writer busy
+        // without buffering the export
+        int readerCount = Math.min(queries.size(), perRequest(readersPerRequest, exportWorkers));
+        BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(Math.max(2, 2 * readerCount));
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        AtomicInteger nextPartition = new AtomicInteger();
+        List<Future<?>> readers = new ArrayList<>();
+        for (int i = 0; i < readerCount; i++) {
+            readers.add(exportReaders.submit(() -> readPartitions(targets, queries, nextPartition, chunks, failure)));
+        }
+
+        long bytes = 0;
+        int written = 0;
+        try {
+            for (int pending = readers.size(); pending > 0; ) {
+                byte[] chunk = chunks.take();
+                if (chunk == READER_DONE) {
+                    pending--;
+                    continue;
+                }
+                out.write(chunk);
+                bytes += chunk.length;
+                written++;
+            }
+            out.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } finally {
+            readers.forEach(reader -> reader.cancel(true));
+        }
+        if (failure.get() != null) {
+            // the response is already committed; a truncated archive is the only signal left
+            throw new IOException("Export failed: " + failure.get().getMessage(), failure.get());
+        }
+        log.info("Exported {} chunks ({} bytes) from {} in {} ms", written, bytes, collections,
+                System.currentTimeMillis() - started);
+    }
+
+    private void readPartitions(List<String> targets, List<Query> queries, AtomicInteger next,
+                                BlockingQueue<byte[]> chunks, AtomicReference<Exception> failure) {
+        for (int i = next.getAndIncrement(); i < queries.size() && failure.get() == null; i = next.getAndIncrement()) {
+            try {
+                readPartition(targets.get(i), queries.get(i), chunks, failure);
+            } catch (InterruptedException e) {
+                return; // the writer has given up; nobody will take READER_DONE
+            } catch (Exception e) {
+                log.error("Archive reader for {} failed: {}", targets.get(i), e.getMessage());
+                failure.compareAndSet(null, e);
+            }
+        }
+        try {
+            chunks.put(READER_DONE);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void readPartition(String collection, Query query, BlockingQueue<byte[]> chunks,
+                               AtomicReference<Exception> failure) throws IOException, InterruptedException {
+        ChunkBuilder builder = new ChunkBuilder(collection);
+        try (Stream<Document> cursor = mongoTemplate.stream(query, Document.class, collection)) {
+            Iterator<Document> documents = cursor.iterator();
+            while (documents.hasNext() && failure.get() == null) {
+                builder.add(documents.next());
+                if (builder.count() >= chunkDocuments || builder.size() >= chunkBytes) {
+                    chunks.put(builder.seal());
+                }
+            }
+        }
+        if (builder.count() > 0) {
+            chunks.put(builder.seal());
+        }
+    }
+
+    private static Criteria selection(ArchiveExportRequest request) {
+        Criteria criteria = new Criteria();
+        if (request.getDeviceId() != null) {
+            criteria.and("deviceId").is(request.getDeviceId());
+        }
+        if (request.getFrom() != null || request.getTo() != null) {
+            Criteria timestamp = criteria.and("timestamp");
+            if (request.getFrom() != null) {
+                timestamp.gte(request.getFrom());
+            }
+            if (request.getTo() != null) {
+                timestamp.lt(request.getTo());
+            }
+        }
+        return criteria;
+    }
+
+    /**
+     * Splits a selection into ranges of ObjectId creation second between its lowest and highest
+     * _id. Collections whose ids are not ObjectIds are read as one range.
+     */
+    private List<Criteria> partition(Criteria selection, String collection) {
+        ObjectId low = boundaryId(selection, collection, Sort.Direction.ASC);
+        ObjectId high = boundaryId(selection, collection, Sort.Direction.DESC);
+        if (low == null || high == null || partitions <= 1) {
+            return List.of(selection);
+        }
+        long first = low.getTimestamp() & 0xFFFFFFFFL;
+        long span = (high.getTimestamp() & 0xFFFFFFFFL) - first + 1;
+        int count = (int) Math.min(partitions, span);
+
+        List<Criteria> ranges = new ArrayList<>(count);
+        ObjectId lower = null;
+        for (int i = 1; i <= count; i++) {
+            ObjectId upper = i < count ? idAtSecond(first + span * i / count) : null;
+            Criteria id = Criteria.where("_id");
+            if (lower != null) {
+                id.gte(lower);
+            }
+            if (upper != null) {
+                id.lt(upper);
+            }
+            ranges.add(lower == null && upper == null ? selection : new Criteria().andOperator(selection, id));
+            lower = upper;
+        }
+        return ranges;
+    }
+
+    private ObjectId boundaryId(Criteria selection, String collection, Sort.Direction direction) {
+        Query query = new Query(selection).with(Sort.by(direction, "_id")).limit(1);
+        query.fields().include("_id");
+        Document document = mongoTemplate.findOne(query, Document.class, collection);
+        if (document == null) {
+            return null;
+        }
+        Object id = document.get("_id");
+        return id instanceof ObjectId objectId ? objectId : null;
+    }
+
+    private static ObjectId idAtSecond(long seconds) {
+        return new ObjectId(String.format("%08x", seconds) + "0000000000000000");
+    }
+
+    /**
+     * Inserts every chunk of an archive from index {@code resumeFromChunk} on. Stops at the first
+     * failed chunk and reports where to resume; documents already present are counted as
+     * duplicates rather than failures.
+     *
+     * Chunks are held to {@code archive.import.max-chunk-documents} documents and
+     * {@code archive.import.max-chunk-bytes} plus one document, so a crafted archive cannot make the
+     * server buffer more than a few chunks' worth. The defaults sit well above the export defaults,
+     * so archives from environments with larger export chunks still import.
+     */
+    public ArchiveImportResult importArchive(InputStream in, int resumeFromChunk) throws IOException {
+        if (resumeFromChunk < 0) {
+            throw new IllegalArgumentException("resumeFromChunk must not be negative");
+        }
+        long started = System.currentTimeMillis();
+        Map<String, AtomicLong> inserted = new ConcurrentHashMap<>();
+        AtomicLong duplicates = new AtomicLong();
+        AtomicReference<String> failure = new AtomicReference<>();
+        BitSet completed = new BitSet();
+        // bounds both the parsed chunks held and this request's share of the writer pool
+        Semaphore inFlight = new Semaphore(perRequest(importParallelism, importWorkers));
+        List<Future<?>> writers = new ArrayList<>();
+
+        int chunkCount = 0;
+        try (ChunkReader reader = new ChunkReader(in, maxImportChunkBytes + ArchiveFormat.MAX_DOCUMENT_BYTES)) {
+            byte[] chunk;
+            try {
+                chunk = reader.next();
+            } catch (ZipException | EOFException e) {
+                throw new IllegalArgumentException("Not a gzip archive");
+            }
+            if (chunk == null) {
+                throw new IllegalArgumentException("Not a gzip archive");
+            }
+            for (; chunk != null && failure.get() == null; chunk = reader.next()) {
+                int index = chunkCount++;
+                int eol = lineEnd(chunk, 0);
+                String headerLine = new String(chunk, 0, eol, StandardCharsets.UTF_8);
+                if (!ArchiveFormat.isChunkHeader(headerLine)) {
+                    if (index == 0) {
+                        throw new IllegalArgumentException("Not a DIDS archive: missing chunk header");
+                    }
+                    failure.compareAndSet(null, "Chunk " + index + " has no chunk header");
+                    break;
+                }
+                Object spec = Document.parse(headerLine).get(ArchiveFormat.CHUNK_KEY);
+                Document header = spec instanceof Document document ? document : new Document();
+                String collection = header.get("collection") instanceof String name ? name : null;
+                int count = header.get("count") instanceof Integer declared ? declared : -1;
+                if (!archivable.contains(collection)) {
+                    failure.compareAndSet(null, "Chunk " + index + " targets unknown collection '" + collection + "'");
+                } else if (count < 0 || count > maxImportChunkDocuments) {
+                    failure.compareAndSet(null, "Chunk " + index + " declares " + count
+                            + " documents; the limit is " + maxImportChunkDocuments);
+                } else if (index < resumeFromChunk) {
+                    markCompleted(completed, index);
+                } else {
+                    List<Document> documents = parseDocuments(chunk, eol + 1, count);
+                    if (documents.size() != count) {
+                        failure.compareAndSet(null, "Chunk " + index + " holds " + documents.size() + " documents, header says " + count);
+                        break;
+                    }
+                    inFlight.acquire();
+                    writers.add(submitChunk(index, collection, documents, inserted, duplicates,
+                            failure, completed, inFlight));
+                }
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            failure.compareAndSet(null, String.valueOf(e.getCause()));
+        } catch (IOException e) {
+            // a truncated upload or corrupt chunk still keeps the chunks written before it
+            failure.compareAndSet(null, "Archive unreadable in chunk " + chunkCount + ": " + e.getMessage());
+            awaitQuietly(writers);
+        } catch (JsonParseException e) {
+            failure.compareAndSet(null, "Invalid document in chunk " + (chunkCount - 1) + ": " + e.getMessage());
+            awaitQuietly(writers);
+        }
+
+        ArchiveImportResult result = new ArchiveImportResult();
+        Map<String, Long> totals = new LinkedHashMap<>();
+        inserted.forEach((name, count) -> totals.put(name, count.get()));
+        result.setInserted(totals);
+        result.setDuplicates(duplicates.get());
+        result.setChunks(chunkCount);
+        result.setSkippedChunks(Math.min(resumeFromChunk, chunkCount));
+        result.setError(failure.get());
+        result.setCompleted(failure.get() == null);
+        synchronized (completed) {
+            result.setResumeFromChunk(result.isCompleted() ? chunkCount : completed.nextClearBit(0));
+        }
+        if (!totals.isEmpty()) {
+            // raw inserts bypass the repository events that keep the dashboard cache current
+            dashboardService.reload();
+        }
+        log.info("Imported {} chunks ({} inserted, {} duplicates) in {} ms{}", chunkCount - result.getSkippedChunks(),
+                totals, duplicates.get(), System.currentTimeMillis() - started,
+                result.isCompleted() ? "" : "; stopped: " + failure.get());
+        return result;
+    }
+
+    /**
+     * Parses the document lines of a chunk, stopping once it holds more than {@code expected}.
+     */
+    private static List<Document> parseDocuments(byte[] chunk, int from, int expected) {
+        List<Document> documents = new ArrayList<>(expected);
+        for (int p = from; p < chunk.length && documents.size() <= expected; ) {
+            int eol = lineEnd(chunk, p);
+            if (eol > p) {
+                documents.add(Document.parse(new String(chunk, p, eol - p, StandardCharsets.UTF_8)));
+            }
+            p = eol + 1;
+        }
+        return documents;
+    }
+
+    private static int lineEnd(byte[] chunk, int from) {
+        for (int i = from; i < chunk.length; i++) {
+            if (chunk[i] == '\n') {
+                return i;
+            }
+        }
+        return chunk.length;
+    }
+
+    private Future<?> submitChunk(int index, String collection, List<Document> documents,
+                                  Map<String, AtomicLong> inserted, AtomicLong duplicates,
+                                  AtomicReference<String> failure, BitSet completed, Semaphore inFlight) {
+        return importWriters.submit(() -> {
+            try {
+                if (failure.get() != null) {
+                    return;
+                }
+                long written = documents.size();
+                if (!documents.isEmpty()) {
+                    try {
+                        mongoTemplate.getCollection(collection)
+                                .insertMany(documents, new InsertManyOptions().ordered(false));
+                    } catch (MongoBulkWriteException e) {
+                        for (BulkWriteError error : e.getWriteErrors()) {
+                            if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                                throw e;
+                            }
+                        }
+                        written = e.getWriteResult().getInsertedCount();
+                        duplicates.addAndGet(e.getWriteErrors().size());
+                    }
+                }
+                inserted.computeIfAbsent(collection, name -> new AtomicLong()).addAndGet(written);
+                markCompleted(completed, index);
+            } catch (RuntimeException e) {
+                log.error("Archive chunk {} ({}) failed: {}", index, collection, e.getMessage());
+                failure.compareAndSet(null, "Chunk " + index + " (" + collection + "): " + e.getMessage());
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Threads one request may occupy: as configured, but always leaving a pool thread for others.
+     */
+    private static int perRequest(int configured, int poolSize) {
+        return Math.max(1, Math.min(configured, poolSize - 1));
+    }
+
+    private static ExecutorService pool(int size, String name) {
+        return Executors.newFixedThreadPool(size, r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static void markCompleted(BitSet completed, int index) {
+        synchronized (completed) {
+            completed.set(index);
+        }
+    }
+
+    private static void awaitQuietly(List<Future<?>> writers) {
+        for (Future<?> writer : writers) {
+            try {
+                writer.get();
+            } catch (Exception ignored) {
+                // failures are already recorded by the writer itself
+            }
+        }
+    }
+}
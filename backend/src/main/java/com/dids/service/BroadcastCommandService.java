@@ -0,0 +1,293 @@
+package com.dids.service;
+
+import com.dids.dto.BroadcastGroup;
+import com.dids.dto.BroadcastRequest;
+import com.dids.dto.BroadcastResponse;
+import com.dids.dto.BroadcastSnapshot;
+import com.dids.dto.CommandResult;
+import com.dids.exception.ResourceNotFoundException;
+import com.dids.model.Device;
+import com.dids.model.Policy;
+import com.dids.repository.DeviceRepository;
+import com.dids.repository.PolicyRepository;
+import com.dids.security.UserPermissions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one command across many devices with bounded parallelism and streams an aggregated view
+ * to /topic/broadcast/{username}/{broadcastId}, which only the user who started it may subscribe to.
+ * Devices that produce identical output (and exit code) are grouped, so a fleet-wide check
+ * collapses into a handful of lines with counts.
+ *
+ * Each message is a cumulative {@link BroadcastSnapshot}, coalesced to at most one per
+ * publish interval, so a late subscriber loses nothing. Snapshots only list devices the viewer
+ * can access.
+ */
+@Service
+@Slf4j
+public class BroadcastCommandService {
+
+    private static final int MAX_SAMPLE_DEVICES = 20;
+
+    private final DeviceRepository deviceRepository;
+    private final PolicyRepository policyRepository;
+    private final CommandExecutor commandExecutor;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "broadcast-publisher");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<String, Broadcast> broadcasts = new ConcurrentHashMap<>();
+
+    @Value("${terminal.broadcast.max-devices:5000}")
+    private int maxDevices;
+
+    @Value("${terminal.broadcast.default-timeout-seconds:30}")
+    private int defaultTimeoutSeconds;
+
+    @Value("${terminal.broadcast.max-timeout-seconds:300}")
+    private int maxTimeoutSeconds;
+
+    @Value("${terminal.broadcast.publish-interval-ms:250}")
+    private long publishIntervalMs;
+
+    @Value("${terminal.broadcast.retention-minutes:15}")
+    private long retentionMinutes;
+
+    public BroadcastCommandService(DeviceRepository deviceRepository,
+                                   PolicyRepository policyRepository,
+                                   CommandExecutor commandExecutor,
+                                   SimpMessagingTemplate messagingTemplate,
+                                   @Value("${terminal.broadcast.parallelism:32}") int parallelism) {
+        this.deviceRepository = deviceRepository;
+        this.policyRepository = policyRepository;
+        this.commandExecutor = commandExecutor;
+        this.messagingTemplate = messagingTemplate;
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "broadcast-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public BroadcastResponse startBroadcast(BroadcastRequest request, UserPermissions user) {
+        Set<String> deviceIds = new LinkedHashSet<>();
+        if (request.getDeviceIds() != null) {
+            deviceIds.addAll(request.getDeviceIds());
+        }
+        if (request.getPolicyId() != null) {
+            Policy policy = policyRepository.findById(request.getPolicyId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Policy", "id", request.getPolicyId()));
+            if (policy.getDeployedDevices() != null) {
+                deviceIds.addAll(policy.getDeployedDevices());
+            }
+        }
+        if (deviceIds.isEmpty()) {
+            throw new IllegalArgumentException("No target devices: provide deviceIds or a policy with deployed devices");
+        }
+        if (deviceIds.size() > maxDevices) {
+            throw new IllegalArgumentException("Too many target devices: " + deviceIds.size() + " (max " + maxDevices + ")");
+        }
+
+        int timeoutSeconds = request.getTimeoutSeconds() == null
+                ? defaultTimeoutSeconds
+                : Math.min(Math.max(request.getTimeoutSeconds(), 1), maxTimeoutSeconds);
+
+        Map<String, String> names = new HashMap<>();
+        for (Device device : deviceRepository.findAllById(deviceIds)) {
+            names.put(device.getId(), device.getName() != null ? device.getName() : device.getId());
+        }
+
+        String broadcastId = UUID.randomUUID().toString();
+        String topic = "/topic/broadcast/" + user.getUsername() + "/" + broadcastId;
+        Broadcast broadcast = new Broadcast(broadcastId, topic, request.getCommand(), deviceIds.size(), user);
+        broadcasts.put(broadcastId, broadcast);
+        log.info("Broadcasting command to {} devices (broadcast {})", deviceIds.size(), broadcastId);
+
+        broadcast.publisher = scheduler.scheduleAtFixedRate(
+                () -> publish(broadcast), publishIntervalMs, publishIntervalMs, TimeUnit.MILLISECONDS);
+
+        for (String deviceId : deviceIds) {
+            String name = names.get(deviceId);
+            if (name == null || !user.canAccessDevice(deviceId)) {
+                // same answer for both, so the result does not reveal which devices exist
+                complete(broadcast, new Target(null, deviceId), new CommandResult(-1, "Device not found", false));
+                continue;
+            }
+            Target target = new Target(deviceId, name);
+            if (!user.canRunCommands(deviceId)) {
+                complete(broadcast, target, new CommandResult(-1, "Permission denied", false));
+                continue;
+            }
+            workers.execute(() -> complete(broadcast, target,
+                    execute(broadcast, deviceId, timeoutSeconds * 1000L)));
+        }
+
+        return new BroadcastResponse(broadcastId, topic, deviceIds.size());
+    }
+
+    public BroadcastSnapshot getSnapshot(String broadcastId, UserPermissions user) {
+        Broadcast broadcast = broadcasts.get(broadcastId);
+        if (broadcast == null) {
+            throw new ResourceNotFoundException("Broadcast", "id", broadcastId);
+        }
+        return broadcast.snapshot(user);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Runs the command on one device. A failure is reported as that device's result, so every
+     * target completes and the broadcast always finishes.
+     */
+    private CommandResult execute(Broadcast broadcast, String deviceId, long timeoutMillis) {
+        try {
+            return commandExecutor.execute(deviceId, broadcast.command, timeoutMillis);
+        } catch (RuntimeException e) {
+            log.warn("Broadcast {} failed on device {}: {}", broadcast.id, deviceId, e.getMessage());
+            return new CommandResult(-1, "Command failed: " + e.getMessage(), false);
+        }
+    }
+
+    private void complete(Broadcast broadcast, Target target, CommandResult result) {
+        String output = result.isTimedOut()
+                ? stripTrailing(result.getOutput()) + "\n[timed out]"
+                : stripTrailing(result.getOutput());
+        broadcast.groups
+                .computeIfAbsent(result.getExitCode() + "\u0000" + output, key -> new Group(output, result.getExitCode()))
+                .add(target);
+
+        if (broadcast.completed.incrementAndGet() == broadcast.total) {
+            ScheduledFuture<?> publisher = broadcast.publisher;
+            if (publisher != null) {
+                publisher.cancel(false);
+            }
+            // All publishes run on the single scheduler thread, so the final snapshot is always
+            // delivered after any periodic one that was already in progress
+            scheduler.execute(() -> publish(broadcast));
+            log.info("Broadcast {} finished on {} devices in {} groups",
+                    broadcast.id, broadcast.total, broadcast.groups.size());
+            scheduler.schedule(() -> broadcasts.remove(broadcast.id), retentionMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    private void publish(Broadcast broadcast) {
+        int completed = broadcast.completed.get();
+        // Skip periodic publishes when nothing changed since the last one
+        if (completed == broadcast.lastPublished && completed != broadcast.total) {
+            return;
+        }
+        broadcast.lastPublished = completed;
+        messagingTemplate.convertAndSend(broadcast.topic, broadcast.snapshot(broadcast.owner));
+    }
+
+    private static String stripTrailing(String output) {
+        return output == null ? "" : output.stripTrailing();
+    }
+
+    /**
+     * A device a result belongs to. The id is null for targets that were not found or not accessible
+     * to the user who started the broadcast; those show the id that user supplied, and only to them.
+     */
+    private record Target(String deviceId, String label) {
+        boolean visibleTo(UserPermissions user, boolean starter) {
+            return deviceId == null ? starter : user.canAccessDevice(deviceId);
+        }
+    }
+
+    private static class Broadcast {
+        private final String id;
+        private final String topic;
+        private final String command;
+        private final int total;
+        private final UserPermissions owner;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final Map<String, Group> groups = new ConcurrentHashMap<>();
+        private volatile ScheduledFuture<?> publisher;
+        private volatile int lastPublished = -1;
+
+        Broadcast(String id, String topic, String command, int total, UserPermissions owner) {
+            this.id = id;
+            this.topic = topic;
+            this.command = command;
+            this.total = total;
+            this.owner = owner;
+        }
+
+        /**
+         * Groups as seen by {@code viewer}: devices it cannot access are left out, and so are
+         * groups (and their output) that only contain such devices.
+         */
+        BroadcastSnapshot snapshot(UserPermissions viewer) {
+            int done = completed.get();
+            boolean starter = viewer.getUsername().equals(owner.getUsername());
+            List<BroadcastGroup> view = new ArrayList<>(groups.size());
+            for (Group group : groups.values()) {
+                BroadcastGroup dto = group.toDto(viewer, starter);
+                if (dto != null) {
+                    view.add(dto);
+                }
+            }
+            view.sort(Comparator.comparingInt(BroadcastGroup::getCount).reversed());
+            return new BroadcastSnapshot(id, command, total, done, done == total, view);
+        }
+    }
+
+    private static class Group {
+        private final String output;
+        private final int exitCode;
+        private final List<Target> targets = new ArrayList<>();
+
+        Group(String output, int exitCode) {
+            this.output = output;
+            this.exitCode = exitCode;
+        }
+
+        synchronized void add(Target target) {
+            targets.add(target);
+        }
+
+        /**
+         * @return the group restricted to devices the viewer can access, or null if there are none
+         */
+        synchronized BroadcastGroup toDto(UserPermissions viewer, boolean starter) {
+            int count = 0;
+            List<String> sample = new ArrayList<>();
+            for (Target target : targets) {
+                if (target.visibleTo(viewer, starter)) {
+                    count++;
+                    if (sample.size() < MAX_SAMPLE_DEVICES) {
+                        sample.add(target.label());
+                    }
+                }
+            }
+            return count == 0 ? null : new BroadcastGroup(output, exitCode, count, sample);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.dids.service;
+
+import com.dids.dto.CommandResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a single command for a device and captures its combined output, killing it on timeout.
+ * Like the interactive terminal this executes on the backend host (for demo purposes - in production, use SSH).
+ */
+@Component
+@Slf4j
+public class CommandExecutor {
+
+    @Value("${terminal.command.max-output-bytes:65536}")
+    private int maxOutputBytes;
+
+    private final ScheduledExecutorService timeouts = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "command-timeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public CommandResult execute(String deviceId, String command, long timeoutMillis) {
+        ProcessBuilder processBuilder = new ProcessBuilder();
+        if (System.getProperty("os.name").toLowerCase().contains("win")) {
+            processBuilder.command("cmd.exe", "/c", command);
+        } else {
+            processBuilder.command("sh", "-c", command);
+        }
+        processBuilder.redirectErrorStream(true);
+
+        Process process;
+        try {
+            process = processBuilder.start();
+        } catch (IOException e) {
+            log.error("Error executing command on {}: {}", deviceId, e.getMessage());
+            return new CommandResult(-1, "Error: " + e.getMessage(), false);
+        }
+
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> killer = timeouts.schedule(() -> {
+            timedOut.set(true);
+            // Children of the shell may hold the output pipe open, so kill the whole tree
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream in = process.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                int keep = Math.min(n, maxOutputBytes - output.size());
+                if (keep > 0) {
+                    output.write(buffer, 0, keep);
+                }
+            }
+            int exitCode = process.waitFor();
+            return new CommandResult(exitCode, output.toString(StandardCharsets.UTF_8), timedOut.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+            return new CommandResult(-1, output.toString(StandardCharsets.UTF_8), timedOut.get());
+        } catch (IOException e) {
+            process.destroyForcibly();
+            return new CommandResult(-1, "Error: " + e.getMessage(), timedOut.get());
+        } finally {
+            killer.cancel(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeouts.shutdownNow();
+    }
+}
@@ -0,0 +1,59 @@
+package com.dids.service;
+
+import com.dids.model.Alert;
+import com.dids.model.Device;
+import com.dids.model.Log;
+import com.dids.model.Policy;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@link DashboardService} cache in step with saves and deletes made through Spring Data.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardCacheListener extends AbstractMongoEventListener<Object> {
+
+    private final DashboardService dashboardService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Object source = event.getSource();
+        if (source instanceof Log entry) {
+            dashboardService.logSaved(entry);
+        } else if (source instanceof Alert alert) {
+            dashboardService.alertSaved(alert);
+        } else if (source instanceof Device device) {
+            dashboardService.deviceSaved(device);
+        } else if (source instanceof Policy policy) {
+            dashboardService.policySaved(policy);
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        String section;
+        if (Device.class.equals(event.getType())) {
+            section = DashboardService.DEVICES;
+        } else if (Alert.class.equals(event.getType())) {
+            section = DashboardService.ALERTS;
+        } else if (Policy.class.equals(event.getType())) {
+            section = DashboardService.POLICIES;
+        } else {
+            return;
+        }
+        // Single deletes carry the id in the query; anything broader needs a reload
+        Document query = event.getSource();
+        Object id = query.size() == 1 ? query.get("_id") : null;
+        if (id instanceof String || id instanceof ObjectId) {
+            dashboardService.removed(section, id.toString());
+        } else {
+            dashboardService.reload();
+        }
+    }
+}
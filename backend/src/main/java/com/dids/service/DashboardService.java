@@ -0,0 +1,650 @@
+package com.dids.service;
+
+import com.dids.dto.DashboardSnapshot;
+import com.dids.dto.DashboardStats;
+import com.dids.dto.PolicySummary;
+import com.dids.model.Alert;
+import com.dids.model.Device;
+import com.dids.model.Log;
+import com.dids.model.Policy;
+import com.dids.repository.AlertRepository;
+import com.dids.repository.DeviceRepository;
+import com.dids.repository.LogRepository;
+import com.dids.repository.PolicyRepository;
+import com.dids.security.UserPermissions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory dashboard model (devices, open alerts, recent logs, policy summaries) kept current by
+ * repository lifecycle events, so serving the dashboard never queries MongoDB.
+ *
+ * Every change bumps a version and is appended to a fixed-size change ring; a client that sends
+ * the version it last saw gets only the items changed since, or a full snapshot once its version
+ * has fallen out of the ring. Versions start at the load time in milliseconds, so a version held
+ * by a client from before a restart falls below the new floor and gets a full snapshot. Removals
+ * keep the removed item's device id, so deltas only report them to users who could see the item.
+ *
+ * Ingested logs are published to a lock-free ring and moved into the model once per
+ * {@code dashboard.log-flush-ms} under a single version, so ingestion never waits on dashboard
+ * readers and the version moves at most once per tick because of logs.
+ *
+ * The model loads lazily on first use. Changes reported while that load is running are queued and
+ * replayed once it finishes, since the load may have read the repositories before they were written.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+
+    public static final String STATS = "stats";
+    public static final String DEVICES = "devices";
+    public static final String ALERTS = "alerts";
+    public static final String LOGS = "logs";
+    public static final String POLICIES = "policies";
+    private static final Set<String> SECTIONS = Set.of(STATS, DEVICES, ALERTS, LOGS, POLICIES);
+
+    private static final int RECENT_LOGS = 100;
+
+    private final DeviceRepository deviceRepository;
+    private final AlertRepository alertRepository;
+    private final LogRepository logRepository;
+    private final PolicyRepository policyRepository;
+    private final ObjectMapper objectMapper;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Device> devices = new LinkedHashMap<>();
+    private final Map<String, Alert> alerts = new LinkedHashMap<>();
+    private final Map<String, PolicySummary> policies = new LinkedHashMap<>();
+
+    // Newest RECENT_LOGS logs, with the version that added each
+    private final Log[] logs = new Log[RECENT_LOGS];
+    private final long[] logVersions = new long[RECENT_LOGS];
+    private int logHead;
+    private int logCount;
+
+    // Logs reported but not yet flushed, written without the lock: log n goes to slot n % RECENT_LOGS
+    private final AtomicReferenceArray<IncomingLog> incomingLogs = new AtomicReferenceArray<>(RECENT_LOGS);
+    private final AtomicLong logSequence = new AtomicLong();
+    private long flushedLogs; // guarded by the write lock
+
+    // Change ring: (version, section, id, device id) of recent upserts and removals
+    private final long[] changeVersions;
+    private final String[] changeSections;
+    private final String[] changeIds;
+    private final String[] changeDeviceIds;
+    private int changeHead;
+    private int changeCount;
+
+    private long version;
+    private long floor;
+    private volatile boolean loaded;
+
+    // Changes reported while a load is running, replayed after it
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+    private boolean loading; // guarded by pendingChanges
+
+    @Value("${dashboard.log-flush-ms:1000}")
+    private long logFlushMs;
+
+    private ScheduledExecutorService logFlusher;
+
+    private record IncomingLog(long sequence, Log entry) {
+    }
+
+    public DashboardService(DeviceRepository deviceRepository,
+                            AlertRepository alertRepository,
+                            LogRepository logRepository,
+                            PolicyRepository policyRepository,
+                            ObjectMapper objectMapper,
+                            @Value("${dashboard.change-log-size:4096}") int changeLogSize) {
+        this.deviceRepository = deviceRepository;
+        this.alertRepository = alertRepository;
+        this.logRepository = logRepository;
+        this.policyRepository = policyRepository;
+        this.objectMapper = objectMapper;
+        this.changeVersions = new long[changeLogSize];
+        this.changeSections = new String[changeLogSize];
+        this.changeIds = new String[changeLogSize];
+        this.changeDeviceIds = new String[changeLogSize];
+    }
+
+    @PostConstruct
+    public void init() {
+        logFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dashboard-log-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        logFlusher.scheduleWithFixedDelay(this::flushLogs, logFlushMs, logFlushMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (logFlusher != null) {
+            logFlusher.shutdownNow();
+        }
+    }
+
+    public long currentVersion() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the dashboard view for a user: a delta when {@code since} is still covered by the
+     * change ring, otherwise a full snapshot.
+     */
+    public DashboardSnapshot snapshot(Long since, Projection projection, UserPermissions user) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            DashboardSnapshot snapshot = new DashboardSnapshot();
+            snapshot.setVersion(version);
+            boolean delta = since != null && since >= floor && since <= version;
+            snapshot.setFull(!delta);
+            if (projection.includes(STATS)) {
+                snapshot.setStats(stats(user));
+            }
+            if (delta) {
+                fillDelta(snapshot, since, projection, user);
+            } else {
+                fillFull(snapshot, projection, user);
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void fillFull(DashboardSnapshot snapshot, Projection projection, UserPermissions user) {
+        if (projection.includes(DEVICES)) {
+            List<Object> view = new ArrayList<>();
+            for (Device device : devices.values()) {
+                if (canSee(user, device.getId())) {
+                    view.add(projection.apply(DEVICES, device, objectMapper));
+                }
+            }
+            snapshot.setDevices(view);
+        }
+        if (projection.includes(ALERTS)) {
+            List<Object> view = new ArrayList<>();
+            for (Alert alert : alerts.values()) {
+                if (canSee(user, alert.getDeviceId())) {
+                    view.add(projection.apply(ALERTS, alert, objectMapper));
+                }
+            }
+            snapshot.setAlerts(view);
+        }
+        if (projection.includes(LOGS)) {
+            snapshot.setLogs(recentLogs(Long.MIN_VALUE, projection, user));
+        }
+        if (projection.includes(POLICIES)) {
+            List<Object> view = new ArrayList<>();
+            for (PolicySummary policy : policies.values()) {
+                view.add(projection.apply(POLICIES, policy, objectMapper));
+            }
+            snapshot.setPolicies(view);
+        }
+    }
+
+    private void fillDelta(DashboardSnapshot snapshot, long since, Projection projection, UserPermissions user) {
+        // section -> id -> device id of the newest change to that item
+        Map<String, Map<String, String>> changed = new HashMap<>();
+        for (int i = 0; i < changeCount; i++) {
+            int index = Math.floorMod(changeHead - 1 - i, changeVersions.length);
+            if (changeVersions[index] <= since) {
+                break;
+            }
+            changed.computeIfAbsent(changeSections[index], k -> new LinkedHashMap<>())
+                    .putIfAbsent(changeIds[index], changeDeviceIds[index]);
+        }
+
+        Map<String, List<String>> removed = new LinkedHashMap<>();
+        if (projection.includes(DEVICES)) {
+            snapshot.setDevices(changedItems(DEVICES, changed, devices, projection, user, removed));
+        }
+        if (projection.includes(ALERTS)) {
+            snapshot.setAlerts(changedItems(ALERTS, changed, alerts, projection, user, removed));
+        }
+        if (projection.includes(LOGS)) {
+            snapshot.setLogs(recentLogs(since, projection, user));
+        }
+        if (projection.includes(POLICIES)) {
+            snapshot.setPolicies(changedItems(POLICIES, changed, policies, projection, null, removed));
+        }
+        if (!removed.isEmpty()) {
+            snapshot.setRemoved(removed);
+        }
+    }
+
+    private List<Object> changedItems(String section, Map<String, Map<String, String>> changed, Map<String, ?> items,
+                                      Projection projection, UserPermissions user, Map<String, List<String>> removed) {
+        List<Object> view = new ArrayList<>();
+        for (Map.Entry<String, String> change : changed.getOrDefault(section, Map.of()).entrySet()) {
+            String id = change.getKey();
+            Object item = items.get(id);
+            if (item == null) {
+                if (canSee(user, change.getValue())) {
+                    removed.computeIfAbsent(section, k -> new ArrayList<>()).add(id);
+                }
+            } else if (canSee(user, deviceIdOf(item))) {
+                view.add(projection.apply(section, item, objectMapper));
+            }
+        }
+        return view;
+    }
+
+    private List<Object> recentLogs(long since, Projection projection, UserPermissions user) {
+        List<Object> view = new ArrayList<>();
+        for (int i = 0; i < logCount; i++) {
+            int index = Math.floorMod(logHead - 1 - i, RECENT_LOGS);
+            if (logVersions[index] <= since) {
+                break;
+            }
+            if (canSee(user, logs[index].getDeviceId())) {
+                view.add(projection.apply(LOGS, logs[index], objectMapper));
+            }
+        }
+        return view;
+    }
+
+    private DashboardStats stats(UserPermissions user) {
+        DashboardStats stats = new DashboardStats();
+        for (Device device : devices.values()) {
+            if (canSee(user, device.getId())) {
+                stats.setTotalDevices(stats.getTotalDevices() + 1);
+                if ("online".equals(device.getStatus())) {
+                    stats.setActiveDevices(stats.getActiveDevices() + 1);
+                }
+            }
+        }
+        for (Alert alert : alerts.values()) {
+            if (canSee(user, alert.getDeviceId())) {
+                stats.setOpenAlerts(stats.getOpenAlerts() + 1);
+                if ("critical".equals(alert.getSeverity())) {
+                    stats.setCriticalAlerts(stats.getCriticalAlerts() + 1);
+                }
+            }
+        }
+        for (PolicySummary policy : policies.values()) {
+            stats.setTotalPolicies(stats.getTotalPolicies() + 1);
+            if (policy.isActive()) {
+                stats.setActivePolicies(stats.getActivePolicies() + 1);
+            }
+        }
+        return stats;
+    }
+
+    private static boolean canSee(UserPermissions user, String deviceId) {
+        return user == null || deviceId == null || user.canAccessDevice(deviceId);
+    }
+
+    private static String deviceIdOf(Object item) {
+        if (item instanceof Device device) {
+            return device.getId();
+        }
+        return item instanceof Alert alert ? alert.getDeviceId() : null;
+    }
+
+    // --- Change tracking, driven by DashboardCacheListener and bulk writers ---
+
+    public void deviceSaved(Device device) {
+        update(() -> {
+            devices.put(device.getId(), device);
+            recordChange(DEVICES, device.getId(), device.getId());
+        });
+    }
+
+    public void alertSaved(Alert alert) {
+        update(() -> {
+            if ("resolved".equals(alert.getStatus())) {
+                alerts.remove(alert.getId());
+            } else {
+                alerts.put(alert.getId(), alert);
+            }
+            recordChange(ALERTS, alert.getId(), alert.getDeviceId());
+        });
+    }
+
+    /**
+     * For bulk updates that bypass repository events.
+     */
+    public void alertsSaved(Collection<Alert> changed) {
+        update(() -> {
+            for (Alert alert : changed) {
+                if ("resolved".equals(alert.getStatus())) {
+                    alerts.remove(alert.getId());
+                } else {
+                    alerts.put(alert.getId(), alert);
+                }
+                recordChange(ALERTS, alert.getId(), alert.getDeviceId());
+            }
+        });
+    }
+
+    public void alertsRemoved(Collection<String> ids) {
+        update(() -> {
+            for (String id : ids) {
+                Alert alert = alerts.remove(id);
+                if (alert != null) { // otherwise no client holds it
+                    recordChange(ALERTS, id, alert.getDeviceId());
+                }
+            }
+        });
+    }
+
+    public void policySaved(Policy policy) {
+        update(() -> {
+            policies.put(policy.getId(), PolicySummary.of(policy));
+            recordChange(POLICIES, policy.getId(), null);
+        });
+    }
+
+    /**
+     * Lock-free: the log becomes visible on the next flush.
+     */
+    public void logSaved(Log entry) {
+        long sequence = logSequence.getAndIncrement();
+        incomingLogs.set((int) (sequence % RECENT_LOGS), new IncomingLog(sequence, entry));
+    }
+
+    public void removed(String section, String id) {
+        update(() -> {
+            Map<String, ?> items = switch (section) {
+                case DEVICES -> devices;
+                case ALERTS -> alerts;
+                case POLICIES -> policies;
+                default -> throw new IllegalArgumentException("Unknown dashboard section: " + section);
+            };
+            Object item = items.remove(id);
+            if (item != null) { // otherwise no client holds it
+                recordChange(section, id, deviceIdOf(item));
+            }
+        });
+    }
+
+    /**
+     * Reloads everything from the repositories, e.g. after a bulk delete whose ids are unknown.
+     * Outstanding client versions are invalidated, so every client gets a full snapshot next.
+     */
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            loadAndReplay();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void update(Runnable change) {
+        if (!loaded) {
+            synchronized (pendingChanges) {
+                if (loading) {
+                    pendingChanges.add(change);
+                    return;
+                }
+            }
+            if (!loaded) {
+                return; // nothing loaded yet: the first load will read the current state
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the logs reported since the last flush into the model under one new version.
+     */
+    void flushLogs() {
+        if (!loaded || logSequence.get() == flushedLogs) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long end = logSequence.get();
+            long next = Math.max(flushedLogs, end - RECENT_LOGS);
+            boolean appended = false;
+            for (; next < end; next++) {
+                IncomingLog incoming = incomingLogs.get((int) (next % RECENT_LOGS));
+                if (incoming == null || incoming.sequence() < next) {
+                    break; // claimed but not yet written; picked up by the next flush
+                }
+                if (incoming.sequence() > next || hasRecentLog(incoming.entry().getId())) {
+                    continue; // overwritten by a newer log, or already read by the load
+                }
+                if (!appended) {
+                    version++;
+                    appended = true;
+                }
+                logs[logHead] = incoming.entry();
+                logVersions[logHead] = version;
+                logHead = (logHead + 1) % RECENT_LOGS;
+                logCount = Math.min(logCount + 1, RECENT_LOGS);
+            }
+            flushedLogs = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param deviceId device the item belongs to, or null if every user may see it
+     */
+    private void recordChange(String section, String id, String deviceId) {
+        version++;
+        if (changeCount == changeVersions.length) {
+            // the overwritten entry is no longer available to deltas
+            floor = changeVersions[changeHead];
+        } else {
+            changeCount++;
+        }
+        changeVersions[changeHead] = version;
+        changeSections[changeHead] = section;
+        changeIds[changeHead] = id;
+        changeDeviceIds[changeHead] = deviceId;
+        changeHead = (changeHead + 1) % changeVersions.length;
+    }
+
+    private boolean hasRecentLog(String id) {
+        for (int i = 0; i < logCount; i++) {
+            Log recent = logs[Math.floorMod(logHead - 1 - i, RECENT_LOGS)];
+            if (id != null && id.equals(recent.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                loadAndReplay();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads, then replays the changes queued meanwhile. Called with the write lock held; changes
+     * reported after {@code loaded} is set wait for the lock, so they apply after the replay.
+     */
+    private void loadAndReplay() {
+        synchronized (pendingChanges) {
+            loading = true;
+        }
+        try {
+            load();
+        } finally {
+            synchronized (pendingChanges) {
+                if (loaded) {
+                    for (Runnable change : pendingChanges) {
+                        change.run();
+                    }
+                    if (!pendingChanges.isEmpty()) {
+                        log.info("Dashboard cache replayed {} changes made during load", pendingChanges.size());
+                    }
+                }
+                pendingChanges.clear();
+                loading = false;
+            }
+        }
+    }
+
+    private void load() {
+        devices.clear();
+        for (Device device : deviceRepository.findAll()) {
+            devices.put(device.getId(), device);
+        }
+        alerts.clear();
+        for (Alert alert : alertRepository.findByStatusNot("resolved")) {
+            alerts.put(alert.getId(), alert);
+        }
+        policies.clear();
+        for (Policy policy : policyRepository.findAll()) {
+            policies.put(policy.getId(), PolicySummary.of(policy));
+        }
+        Arrays.fill(logs, null);
+        logHead = 0;
+        logCount = 0;
+        // logs reported before this point were saved before the query below; later ones are flushed
+        // afterwards, skipping any the query also returned
+        long reportedLogs = logSequence.get();
+        List<Log> recent = logRepository.findTop100ByOrderByTimestampDesc();
+        version = Math.max(version + 1, System.currentTimeMillis());
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            logs[logHead] = recent.get(i);
+            logVersions[logHead] = version;
+            logHead = (logHead + 1) % RECENT_LOGS;
+            logCount = Math.min(logCount + 1, RECENT_LOGS);
+        }
+        flushedLogs = Math.max(flushedLogs, reportedLogs);
+        changeCount = 0;
+        floor = version;
+        loaded = true;
+        log.info("Dashboard cache loaded: {} devices, {} open alerts, {} policies",
+                devices.size(), alerts.size(), policies.size());
+    }
+
+    /**
+     * Which sections to return and, per section, which item fields ("id" is always kept).
+     */
+    public static final class Projection {
+
+        private final Set<String> sections;
+        private final Map<String, Set<String>> fields;
+        private final String key;
+
+        private Projection(Set<String> sections, Map<String, Set<String>> fields) {
+            this.sections = sections;
+            this.fields = fields;
+            this.key = Integer.toHexString((sections + "|" + fields).hashCode());
+        }
+
+        /**
+         * @param include comma-separated sections, or null for all
+         * @param fields  comma-separated "section.field" (or bare "field" for every section), or null for all
+         */
+        public static Projection parse(String include, String fields) {
+            Set<String> sections = new TreeSet<>();
+            if (include == null || include.isBlank()) {
+                sections.addAll(SECTIONS);
+            } else {
+                for (String section : include.split(",")) {
+                    String name = section.trim().toLowerCase(Locale.ROOT);
+                    if (!SECTIONS.contains(name)) {
+                        throw new IllegalArgumentException("Unknown dashboard section: " + name);
+                    }
+                    sections.add(name);
+                }
+            }
+
+            Map<String, Set<String>> projected = new TreeMap<>();
+            if (fields != null && !fields.isBlank()) {
+                Set<String> everywhere = new TreeSet<>();
+                for (String field : fields.split(",")) {
+                    String name = field.trim();
+                    int dot = name.indexOf('.');
+                    if (name.isEmpty()) {
+                        continue;
+                    }
+                    if (dot < 0) {
+                        everywhere.add(name);
+                    } else {
+                        String section = name.substring(0, dot).toLowerCase(Locale.ROOT);
+                        if (!SECTIONS.contains(section)) {
+                            throw new IllegalArgumentException("Unknown dashboard section: " + section);
+                        }
+                        projected.computeIfAbsent(section, k -> new TreeSet<>()).add(name.substring(dot + 1));
+                    }
+                }
+                if (!everywhere.isEmpty()) {
+                    for (String section : sections) {
+                        projected.computeIfAbsent(section, k -> new TreeSet<>()).addAll(everywhere);
+                    }
+                }
+                for (Set<String> kept : projected.values()) {
+                    kept.add("id");
+                }
+            }
+            return new Projection(sections, projected);
+        }
+
+        public boolean includes(String section) {
+            return sections.contains(section);
+        }
+
+        /**
+         * Stable identifier of this projection, used in ETags.
+         */
+        public String key() {
+            return key;
+        }
+
+        @SuppressWarnings("unchecked")
+        Object apply(String section, Object item, ObjectMapper objectMapper) {
+            Set<String> kept = fields.get(section);
+            if (kept == null) {
+                return item;
+            }
+            Map<String, Object> view = objectMapper.convertValue(item, LinkedHashMap.class);
+            view.keySet().retainAll(kept);
+            return view;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.dids.service;
+
+import com.dids.dto.IndicatorStats;
+import com.dids.intel.IndicatorSet;
+import com.dids.intel.IndicatorType;
+import com.dids.model.Alert;
+import com.dids.model.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches ingested logs against threat-indicator feeds (ips.txt, domains.txt, substrings.txt,
+ * hashes.txt in the feed directory) and raises "ioc_match" alerts.
+ *
+ * There is at most one open alert per device and indicator: repeat matches increment its
+ * {@code count} and move {@code lastSeen} instead of raising another alert. A partial unique index
+ * backs this up when several ingest batches race to open the same alert.
+ *
+ * Feeds are rebuilt into a fresh {@link IndicatorSet} when their files change (or on demand)
+ * and swapped in atomically; ingestion keeps scanning against the previous set meanwhile.
+ */
+@Service
+@Slf4j
+public class IndicatorService {
+
+    private static final int MAX_EXCERPT = 200;
+    private static final String IOC_MATCH = "ioc_match";
+    private static final String OPEN = "open";
+    private static final FindAndModifyOptions UPSERT = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+    private final DashboardService dashboardService;
+    private final AlertPublisher alertPublisher;
+    private volatile IndicatorSet indicators = IndicatorSet.EMPTY;
+    private long feedStamp;
+    private ScheduledExecutorService watcher;
+
+    @Value("${intel.enabled:true}")
+    private boolean enabled;
+
+    @Value("${intel.feed-dir:intel}")
+    private String feedDir;
+
+    @Value("${intel.poll-interval-seconds:30}")
+    private long pollIntervalSeconds;
+
+    public IndicatorService(MongoTemplate mongoTemplate, DashboardService dashboardService,
+                            AlertPublisher alertPublisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.dashboardService = dashboardService;
+        this.alertPublisher = alertPublisher;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            mongoTemplate.indexOps(Alert.class).ensureIndex(new Index()
+                    .on("deviceId", Sort.Direction.ASC)
+                    .on("indicator", Sort.Direction.ASC)
+                    .unique()
+                    .named("open_ioc_match")
+                    .partial(PartialIndexFilter.of(Criteria.where("type").is(IOC_MATCH).and("status").is(OPEN)
+                            .and("indicator").exists(true))));
+        } catch (DataAccessException e) {
+            // e.g. duplicate open alerts already in the collection; resolve them and restart
+            log.warn("Could not create the open ioc_match index: {}", e.getMessage());
+        }
+        try {
+            reload();
+        } catch (UncheckedIOException e) {
+            log.error("Could not load indicator feeds from {}: {}", feedDir, e.getMessage());
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "indicator-feed-watcher");
+            t.setDaemon(true);
+            return t;
+        });
+        watcher.scheduleWithFixedDelay(this::reloadIfChanged, pollIntervalSeconds, pollIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Rebuilds the indicator set from the feed files and swaps it in.
+     */
+    public synchronized IndicatorStats reload() {
+        Path dir = Paths.get(feedDir);
+        long stamp = feedStamp(dir);
+        long started = System.nanoTime();
+        IndicatorSet loaded;
+        try {
+            loaded = IndicatorSet.load(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load indicator feeds", e);
+        }
+        indicators = loaded;
+        feedStamp = stamp;
+        log.info("Loaded indicators in {} ms: {} IP ranges, {} domain/substring patterns, {} hashes ({} lines rejected)",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                loaded.getIpRanges(), loaded.getPatterns(), loaded.getHashes(), loaded.getRejectedLines());
+        return getStats();
+    }
+
+    public IndicatorStats getStats() {
+        IndicatorSet current = indicators;
+        LocalDateTime loadedAt = current.getLoadedAt() == 0 ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(current.getLoadedAt()), ZoneOffset.UTC);
+        return new IndicatorStats(current.getIpRanges(), current.getPatterns(), current.getHashes(),
+                current.getRejectedLines(), loadedAt);
+    }
+
+    /**
+     * Scans a batch of stored logs and opens, or adds the matches to, one alert per device and
+     * indicator.
+     *
+     * @return the alerts raised or updated
+     */
+    public List<Alert> scan(List<Log> logs) {
+        IndicatorSet current = indicators;
+        if (current.getIpRanges() == 0 && current.getPatterns() == 0 && current.getHashes() == 0) {
+            return List.of();
+        }
+        BatchSink sink = new BatchSink();
+        for (Log entry : logs) {
+            sink.current = entry;
+            current.scan(entry.getMessage(), entry.getSourceIp(), sink);
+        }
+        if (sink.alerts.isEmpty()) {
+            return List.of();
+        }
+        List<Alert> saved = new ArrayList<>(sink.alerts.size());
+        for (Alert alert : sink.alerts.values()) {
+            saved.add(upsert(alert));
+        }
+        // findAndModify bypasses repository events
+        dashboardService.alertsSaved(saved);
+        log.info("Raised or updated {} indicator alerts", saved.size());
+        alertPublisher.publish(saved);
+        return saved;
+    }
+
+    private Alert upsert(Alert alert) {
+        Query open = Query.query(Criteria.where("deviceId").is(alert.getDeviceId())
+                .and("type").is(IOC_MATCH)
+                .and("indicator").is(alert.getIndicator())
+                .and("status").is(OPEN));
+        Update update = new Update()
+                .inc("count", alert.getCount())
+                .max("lastSeen", alert.getLastSeen())
+                .setOnInsert("deviceName", alert.getDeviceName())
+                .setOnInsert("severity", alert.getSeverity())
+                .setOnInsert("description", alert.getDescription())
+                .setOnInsert("timestamp", alert.getTimestamp());
+        try {
+            return mongoTemplate.findAndModify(open, update, UPSERT, Alert.class);
+        } catch (DuplicateKeyException e) {
+            // another batch opened the same alert between our match and insert; it matches now
+            return mongoTemplate.findAndModify(open, update, UPSERT, Alert.class);
+        }
+    }
+
+    private synchronized void reloadIfChanged() {
+        try {
+            if (feedStamp(Paths.get(feedDir)) != feedStamp) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.error("Indicator feed reload failed, keeping previous set: {}", e.getMessage());
+        }
+    }
+
+    private static long feedStamp(Path dir) {
+        long stamp = 17;
+        for (String feed : new String[]{IndicatorSet.IP_FEED, IndicatorSet.DOMAIN_FEED,
+                IndicatorSet.SUBSTRING_FEED, IndicatorSet.HASH_FEED}) {
+            Path file = dir.resolve(feed);
+            try {
+                stamp = stamp * 31 + Files.getLastModifiedTime(file).toMillis();
+                stamp = stamp * 31 + Files.size(file);
+            } catch (IOException e) {
+                stamp = stamp * 31; // missing feed
+            }
+        }
+        return stamp;
+    }
+
+    private static class BatchSink implements IndicatorSet.MatchSink {
+        private final Map<String, Alert> alerts = new LinkedHashMap<>();
+        // Last log counted for each alert, so a log matching an indicator twice counts once
+        private final Map<Alert, Log> counted = new IdentityHashMap<>();
+        private Log current;
+
+        @Override
+        public void match(IndicatorType type, String indicator) {
+            Log entry = current;
+            LocalDateTime seen = entry.getTimestamp() != null ? entry.getTimestamp() : LocalDateTime.now();
+            String key = entry.getDeviceId() + '\u0000' + indicator;
+            Alert alert = alerts.get(key);
+            if (alert == null) {
+                alert = new Alert();
+                alert.setDeviceId(entry.getDeviceId());
+                alert.setDeviceName(entry.getDeviceName());
+                alert.setType(IOC_MATCH);
+                alert.setSeverity(type.severity());
+                alert.setStatus(OPEN);
+                alert.setIndicator(indicator);
+                alert.setCount(0);
+                alert.setTimestamp(seen);
+                alert.setDescription("Known-bad " + type.name().toLowerCase(Locale.ROOT) + " indicator " + indicator
+                        + " in log: " + excerpt(entry.getMessage()));
+                alerts.put(key, alert);
+            }
+            if (counted.put(alert, entry) != entry) {
+                alert.setCount(alert.getCount() + 1);
+            }
+            if (alert.getLastSeen() == null || seen.isAfter(alert.getLastSeen())) {
+                alert.setLastSeen(seen);
+            }
+        }
+
+        private static String excerpt(String message) {
+            if (message == null) {
+                return "";
+            }
+            return message.length() <= MAX_EXCERPT ? message : message.substring(0, MAX_EXCERPT) + "...";
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.dids.service;
+
+import com.dids.dto.IngestResponse;
+import com.dids.ingest.LogParser;
+import com.dids.ingest.ParsedEvent;
+import com.dids.model.Device;
+import com.dids.model.Log;
+import com.dids.repository.DeviceRepository;
+import com.dids.repository.LogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parses raw device payloads (syslog lines, agent JSON) into {@link Log} documents and stores
+ * them in batches, checking each stored batch against the threat indicators and the per-device
+ * anomaly baselines.
+ *
+ * Parsers (each with its own symbol table) come from a pool bounded by {@code ingest.parsers},
+ * by default the core count, so memory does not grow with the servlet thread count. A request
+ * holds a parser only while it parses, never while a batch is being written.
+ */
+@Service
+@Slf4j
+public class LogIngestionService {
+
+    private final LogRepository logRepository;
+    private final DeviceRepository deviceRepository;
+    private final IndicatorService indicatorService;
+    private final AnomalyService anomalyService;
+    private final BlockingQueue<LogParser> idleParsers;
+    private final AtomicInteger createdParsers = new AtomicInteger();
+    private final int maxParsers;
+    private final int maxSymbols;
+
+    @Value("${ingest.batch-size:1000}")
+    private int batchSize;
+
+    public LogIngestionService(LogRepository logRepository,
+                               DeviceRepository deviceRepository,
+                               IndicatorService indicatorService,
+                               AnomalyService anomalyService,
+                               @Value("${ingest.max-symbols:65536}") int maxSymbols,
+                               @Value("${ingest.parsers:0}") int parsers) {
+        this.logRepository = logRepository;
+        this.deviceRepository = deviceRepository;
+        this.indicatorService = indicatorService;
+        this.anomalyService = anomalyService;
+        this.maxSymbols = maxSymbols;
+        this.maxParsers = parsers > 0 ? parsers : Runtime.getRuntime().availableProcessors();
+        this.idleParsers = new ArrayBlockingQueue<>(maxParsers);
+    }
+
+    /**
+     * Ingests newline-delimited events: syslog lines and/or one JSON object per line.
+     */
+    public IngestResponse ingestLines(byte[] payload, String deviceId) {
+        Batch batch = new Batch(deviceId);
+        try {
+            int start = 0;
+            for (int i = 0; i <= payload.length; i++) {
+                if (i == payload.length || payload[i] == '\n') {
+                    if (i > start) {
+                        batch.parse(payload, start, i - start);
+                    }
+                    start = i + 1;
+                }
+            }
+            return batch.finish();
+        } finally {
+            batch.releaseParser();
+        }
+    }
+
+    /**
+     * Ingests a single (possibly pretty-printed) JSON event.
+     */
+    public IngestResponse ingestDocument(byte[] payload, String deviceId) {
+        Batch batch = new Batch(deviceId);
+        try {
+            batch.parse(payload, 0, payload.length);
+            return batch.finish();
+        } finally {
+            batch.releaseParser();
+        }
+    }
+
+    private LogParser acquireParser() {
+        LogParser parser = idleParsers.poll();
+        if (parser != null) {
+            return parser;
+        }
+        if (createdParsers.incrementAndGet() <= maxParsers) {
+            return new LogParser(maxSymbols);
+        }
+        createdParsers.decrementAndGet();
+        try {
+            return idleParsers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a log parser", e);
+        }
+    }
+
+    private class Batch {
+        private final int year = LocalDate.now(ZoneOffset.UTC).getYear();
+        private final String deviceId;
+        private final String deviceName;
+        private final long receivedAt = System.currentTimeMillis();
+        private final List<Log> pending = new ArrayList<>();
+        private int accepted;
+        private int rejected;
+        private int alerts;
+        private LogParser parser;
+
+        Batch(String deviceId) {
+            this.deviceId = deviceId;
+            this.deviceName = deviceId == null ? null
+                    : deviceRepository.findById(deviceId).map(Device::getName).orElse(null);
+        }
+
+        void parse(byte[] payload, int off, int len) {
+            if (parser == null) {
+                parser = acquireParser();
+                parser.setDefaultYear(year);
+            }
+            ParsedEvent event = parser.parse(payload, off, len);
+            if (event == null) {
+                rejected++;
+                return;
+            }
+            pending.add(LogParser.toLog(event, deviceId, deviceName, receivedAt));
+            accepted++;
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        IngestResponse finish() {
+            flush();
+            if (rejected > 0) {
+                log.debug("Ingested {} events from {}, rejected {}", accepted, deviceId, rejected);
+            }
+            return new IngestResponse(accepted, rejected, alerts);
+        }
+
+        void releaseParser() {
+            if (parser != null) {
+                idleParsers.offer(parser);
+                parser = null;
+            }
+        }
+
+        private void flush() {
+            // Don't hold a parser across database writes
+            releaseParser();
+            if (!pending.isEmpty()) {
+                logRepository.saveAll(pending);
+                alerts += indicatorService.scan(pending).size();
+                alerts += anomalyService.observe(pending).size();
+                pending.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.dids.service;
+
+import com.dids.dto.RecordingInfo;
+import com.dids.exception.ResourceNotFoundException;
+import com.dids.recording.RecordingFormat;
+import com.dids.recording.RecordingReader;
+import com.dids.recording.RecordingWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Tees terminal session output into one append-only, block-compressed recording per session.
+ * Recording failures are logged and stop that session's recording; they never break the live terminal.
+ * A recording ends on an explicit disconnect, or when the WebSocket connection that started it closes.
+ */
+@Service
+@Slf4j
+public class TerminalRecordingService {
+
+    private static final Pattern RECORDING_ID = Pattern.compile("\\d+-\\d+");
+
+    @Value("${terminal.recording.enabled:true}")
+    private boolean enabled;
+
+    @Value("${terminal.recording.dir:recordings}")
+    private String recordingDir;
+
+    @Value("${terminal.recording.block-size:65536}")
+    private int blockSize;
+
+    @Value("${terminal.recording.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    private final Map<String, Recording> active = new ConcurrentHashMap<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private ScheduledExecutorService flusher;
+    private ExecutorService blockWriter;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "terminal-recording-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushStale, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        // Compression and disk writes happen here, never on the terminal output path
+        blockWriter = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "terminal-recording-writer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @param connectionId the WebSocket session that opened the terminal; its disconnect ends the recording
+     */
+    public void startRecording(String sessionId, String connectionId) {
+        if (!enabled) {
+            return;
+        }
+        stopRecording(sessionId);
+        try {
+            Path dir = Files.createDirectories(deviceDir(sessionId));
+            // start time plus a process-wide sequence, so sessions started in the same millisecond don't collide
+            String recordingId = System.currentTimeMillis() + "-" + (sequence.getAndIncrement() & Integer.MAX_VALUE);
+            RecordingWriter writer = new RecordingWriter(
+                    dir.resolve(recordingId + RecordingFormat.DATA_SUFFIX),
+                    dir.resolve(recordingId + RecordingFormat.INDEX_SUFFIX),
+                    blockSize, blockWriter);
+            Recording previous = active.put(sessionId, new Recording(writer, connectionId));
+            if (previous != null) {
+                closeQuietly(previous.writer()); // a concurrent start for the same device
+            }
+        } catch (IOException e) {
+            log.error("Could not start terminal recording for {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    public void record(String sessionId, String line) {
+        Recording recording = active.get(sessionId);
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.writer().append(System.currentTimeMillis(), line);
+        } catch (IOException e) {
+            log.error("Terminal recording for {} failed, recording stopped: {}", sessionId, e.getMessage());
+            active.remove(sessionId, recording);
+            closeQuietly(recording.writer());
+        }
+    }
+
+    public void stopRecording(String sessionId) {
+        Recording recording = active.remove(sessionId);
+        if (recording != null) {
+            closeQuietly(recording.writer());
+        }
+    }
+
+    /**
+     * Closes the recordings of a dropped WebSocket connection, which never sends its own disconnect.
+     */
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        active.forEach((sessionId, recording) -> {
+            if (recording.connectionId() != null && recording.connectionId().equals(event.getSessionId())
+                    && active.remove(sessionId, recording)) {
+                closeQuietly(recording.writer());
+            }
+        });
+    }
+
+    public List<RecordingInfo> listRecordings(String deviceId) {
+        Path dir = deviceDir(deviceId);
+        List<RecordingInfo> recordings = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return recordings;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(RecordingFormat.DATA_SUFFIX))
+                    .forEach(p -> {
+                        String name = p.getFileName().toString();
+                        String recordingId = name.substring(0, name.length() - RecordingFormat.DATA_SUFFIX.length());
+                        if (!RECORDING_ID.matcher(recordingId).matches()) {
+                            log.warn("Skipping unrecognised recording {}", p);
+                            return;
+                        }
+                        try {
+                            recordings.add(new RecordingInfo(deviceId, recordingId, startedAt(recordingId), Files.size(p)));
+                        } catch (IOException | NumberFormatException e) {
+                            log.warn("Skipping unreadable recording {}", p);
+                        }
+                    });
+        } catch (IOException e) {
+            log.error("Could not list recordings for {}: {}", deviceId, e.getMessage());
+        }
+        recordings.sort(Comparator.comparingLong(RecordingInfo::getStartedAt).reversed());
+        return recordings;
+    }
+
+    public RecordingReader openRecording(String deviceId, String recordingId) throws IOException {
+        if (recordingId == null || !RECORDING_ID.matcher(recordingId).matches()) {
+            throw new IllegalArgumentException("Invalid recording id: " + recordingId);
+        }
+        Path dir = deviceDir(deviceId);
+        Path dataFile = dir.resolve(recordingId + RecordingFormat.DATA_SUFFIX);
+        if (!Files.exists(dataFile)) {
+            throw new ResourceNotFoundException("Recording", "id", recordingId);
+        }
+        return new RecordingReader(dataFile, dir.resolve(recordingId + RecordingFormat.INDEX_SUFFIX));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        active.keySet().forEach(this::stopRecording);
+        if (blockWriter != null) {
+            // let the last sealed blocks reach the disk
+            blockWriter.shutdown();
+            try {
+                blockWriter.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void flushStale() {
+        long now = System.currentTimeMillis();
+        active.forEach((sessionId, recording) -> {
+            try {
+                recording.writer().flushIfOlderThan(now, flushIntervalMs);
+            } catch (IOException e) {
+                log.error("Terminal recording for {} failed, recording stopped: {}", sessionId, e.getMessage());
+                active.remove(sessionId, recording);
+                closeQuietly(recording.writer());
+            }
+        });
+    }
+
+    /**
+     * Recording ids are "startMillis-sequence".
+     */
+    private static long startedAt(String recordingId) {
+        return Long.parseLong(recordingId.substring(0, recordingId.indexOf('-')));
+    }
+
+    private Path deviceDir(String deviceId) {
+        if (deviceId == null || deviceId.isBlank()) {
+            throw new IllegalArgumentException("Device id is required");
+        }
+        // Device ids become directory names; keep them to a safe character set
+        return Paths.get(recordingDir, deviceId.replaceAll("[^A-Za-z0-9_-]", "_"));
+    }
+
+    private record Recording(RecordingWriter writer, String connectionId) {
+    }
+
+    private void closeQuietly(RecordingWriter writer) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Error closing terminal recording: {}", e.getMessage());
+        }
+    }
+}
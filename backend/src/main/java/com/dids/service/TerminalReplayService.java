@@ -0,0 +1,133 @@
+package com.dids.service;
+
+import com.dids.dto.ReplayMessage;
+import com.dids.recording.RecordingReader;
+import com.dids.security.Permission;
+import com.dids.security.UserPermissions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.channels.ClosedByInterruptException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams recorded terminal sessions back to /topic/terminal/replay/{deviceId}, preserving
+ * the original timing scaled by the requested speed.
+ */
+@Service
+@Slf4j
+public class TerminalReplayService {
+
+    private final TerminalRecordingService recordingService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Map<String, Future<?>> activeReplays = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    @Value("${terminal.replay.max-speed:64}")
+    private double maxSpeed;
+
+    public TerminalReplayService(TerminalRecordingService recordingService,
+                                 SimpMessagingTemplate messagingTemplate,
+                                 @Value("${terminal.replay.max-concurrent:8}") int maxConcurrent) {
+        this.recordingService = recordingService;
+        this.messagingTemplate = messagingTemplate;
+        this.executor = Executors.newFixedThreadPool(maxConcurrent, r -> {
+            Thread t = new Thread(r, "terminal-replay");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void handleReplayMessage(ReplayMessage message, UserPermissions user) {
+        String deviceId = message.getDeviceId();
+        if (user == null || !user.has(Permission.VIEW_RECORDINGS) || !user.canAccessDevice(deviceId)) {
+            sendMessage(deviceId, "\u001B[1;31mPermission denied: you may not replay this device's sessions\u001B[0m");
+            return;
+        }
+
+        switch (message.getType()) {
+            case "start":
+            case "seek":
+                startReplay(message);
+                break;
+            case "stop":
+                stopReplay(deviceId);
+                break;
+            default:
+                sendMessage(deviceId, "Unknown replay type: " + message.getType());
+        }
+    }
+
+    private void startReplay(ReplayMessage message) {
+        String deviceId = message.getDeviceId();
+        double speed = message.getSpeed() == null ? 1.0 : Math.min(Math.max(message.getSpeed(), 1.0), maxSpeed);
+        long offset = message.getOffsetMillis() == null ? 0 : Math.max(0, message.getOffsetMillis());
+
+        FutureTask<Void> replay = new FutureTask<>(() -> replay(deviceId, message.getRecordingId(), speed, offset), null) {
+            @Override
+            protected void done() {
+                activeReplays.remove(deviceId, this);
+            }
+        };
+        Future<?> previous = activeReplays.put(deviceId, replay);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        executor.execute(replay);
+    }
+
+    private void stopReplay(String deviceId) {
+        Future<?> replay = activeReplays.remove(deviceId);
+        if (replay != null) {
+            replay.cancel(true);
+        }
+    }
+
+    private void replay(String deviceId, String recordingId, double speed, long offset) {
+        try (RecordingReader reader = recordingService.openRecording(deviceId, recordingId)) {
+            if (reader.startTime() < 0) {
+                sendMessage(deviceId, "\u001B[1;33mRecording is empty\u001B[0m");
+                return;
+            }
+            long from = reader.startTime() + offset;
+            long wallStart = System.nanoTime();
+            reader.seek(from);
+            reader.read((timestamp, line) -> {
+                if (timestamp < from) {
+                    return true;
+                }
+                long due = wallStart + (long) ((timestamp - from) * 1_000_000L / speed);
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                sendMessage(deviceId, line);
+                return true;
+            });
+            sendMessage(deviceId, "\u001B[1;33mReplay finished\u001B[0m");
+        } catch (InterruptedException | ClosedByInterruptException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Error replaying recording {} for {}: {}", recordingId, deviceId, e.getMessage());
+            sendMessage(deviceId, "\u001B[1;31mReplay error: " + e.getMessage() + "\u001B[0m");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void sendMessage(String deviceId, String message) {
+        messagingTemplate.convertAndSend("/topic/terminal/replay/" + deviceId, message);
+    }
+}
@@ -1,6 +1,7 @@
 package com.dids.service;
 
 import com.dids.dto.TerminalMessage;
+import com.dids.security.UserPermissions;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
@@ -16,23 +17,34 @@ import java.util.concurrent.ConcurrentHashMap;
 public class TerminalService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final TerminalRecordingService recordingService;
     private final Map<String, Process> activeProcesses = new ConcurrentHashMap<>();
 
-    public TerminalService(SimpMessagingTemplate messagingTemplate) {
+    public TerminalService(SimpMessagingTemplate messagingTemplate, TerminalRecordingService recordingService) {
         this.messagingTemplate = messagingTemplate;
+        this.recordingService = recordingService;
     }
 
-    public void handleTerminalMessage(TerminalMessage message) {
+    public void handleTerminalMessage(TerminalMessage message, UserPermissions user, String connectionId) {
         String sessionId = message.getDeviceId();
         
         switch (message.getType()) {
             case "connect":
-                connectToDevice(message);
+                if (!checkCommandPermission(sessionId, user)) {
+                    break;
+                }
+                connectToDevice(message, connectionId);
                 break;
             case "command":
+                if (!checkCommandPermission(sessionId, user)) {
+                    break;
+                }
                 executeCommand(sessionId, message.getCommand());
                 break;
             case "disconnect":
+                if (!checkCommandPermission(sessionId, user)) {
+                    break;
+                }
                 disconnect(sessionId);
                 break;
             default:
@@ -40,10 +52,20 @@ public class TerminalService {
         }
     }
 
-    private void connectToDevice(TerminalMessage message) {
+    private boolean checkCommandPermission(String sessionId, UserPermissions user) {
+        if (user != null && user.canRunCommands(sessionId)) {
+            return true;
+        }
+        log.warn("Denied terminal access to {} for {}", sessionId, user != null ? user.getUsername() : "anonymous");
+        sendMessage(sessionId, "\u001B[1;31mPermission denied: you may not run commands on this device\u001B[0m");
+        return false;
+    }
+
+    private void connectToDevice(TerminalMessage message, String connectionId) {
         String sessionId = message.getDeviceId();
         String deviceName = message.getDeviceName();
         String deviceIp = message.getDeviceIp();
+        recordingService.startRecording(sessionId, connectionId);
         
         try {
             sendMessage(sessionId, "\u001B[1;32mConnected to " + deviceName + " (" + deviceIp + ")\u001B[0m");
@@ -144,9 +166,11 @@ public class TerminalService {
             process.destroy();
         }
         sendMessage(sessionId, "\u001B[1;33mDisconnected from device\u001B[0m");
+        recordingService.stopRecording(sessionId);
     }
 
     private void sendMessage(String sessionId, String message) {
+        recordingService.record(sessionId, message);
         messagingTemplate.convertAndSend("/topic/terminal/" + sessionId, message);
     }
 }
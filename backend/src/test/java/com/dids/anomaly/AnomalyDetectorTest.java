@@ -0,0 +1,166 @@
+package com.dids.anomaly;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnomalyDetectorTest {
+
+    private static final long WINDOW = 1_000;
+    private static final long START = 1_000_000 * WINDOW;
+    private static final int WARMUP = 10;
+
+    private static AnomalyDetector detector() {
+        return new AnomalyDetector(16, WINDOW, 0.05, WARMUP, 5, 3, 5, 8);
+    }
+
+    /**
+     * Records {@code count} events spread over window {@code w}, every {@code failEvery}-th one a
+     * failure (0 for none), and returns the anomalies raised.
+     */
+    private static List<Anomaly> fill(AnomalyDetector detector, String device, long w, int count, int failEvery) {
+        List<Anomaly> anomalies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            boolean failure = failEvery > 0 && i % failEvery == 0;
+            Anomaly anomaly = detector.record(device, START + w * WINDOW + i * WINDOW / (count + 1), failure);
+            if (anomaly != null) {
+                anomalies.add(anomaly);
+            }
+        }
+        return anomalies;
+    }
+
+    private static void steady(AnomalyDetector detector, String device, int windows) {
+        for (long w = 0; w < windows; w++) {
+            assertTrue(fill(detector, device, w, 20, 10).isEmpty());
+        }
+    }
+
+    @Test
+    void staysQuietDuringWarmup() {
+        AnomalyDetector detector = detector();
+        assertTrue(fill(detector, "dev", 0, 20, 0).isEmpty());
+        for (long w = 1; w < WARMUP; w++) {
+            assertTrue(fill(detector, "dev", w, 500, 0).isEmpty());
+        }
+    }
+
+    @Test
+    void reportsRateSpikeOncePerSeverity() {
+        AnomalyDetector detector = detector();
+        steady(detector, "dev", 20);
+
+        List<Anomaly> anomalies = fill(detector, "dev", 20, 200, 10);
+
+        assertEquals(3, anomalies.size());
+        assertEquals(List.of("medium", "high", "critical"),
+                anomalies.stream().map(Anomaly::getSeverity).toList());
+        for (Anomaly anomaly : anomalies) {
+            assertEquals(Anomaly.Kind.EVENT_RATE, anomaly.getKind());
+            assertEquals("dev", anomaly.getDeviceId());
+            assertEquals(20.0, anomaly.getExpected(), 1e-9);
+        }
+        assertTrue(fill(detector, "dev", 21, 20, 10).isEmpty(), "a new window starts unreported");
+    }
+
+    @Test
+    void reportsFailureRatioSpike() {
+        AnomalyDetector detector = detector();
+        steady(detector, "dev", 20);
+
+        List<Anomaly> anomalies = fill(detector, "dev", 20, 20, 1);
+
+        assertTrue(!anomalies.isEmpty());
+        assertEquals(Anomaly.Kind.FAILURE_RATIO, anomalies.get(0).getKind());
+        assertTrue(anomalies.get(0).getObserved() > 0.5);
+        assertTrue(anomalies.get(0).getExpected() < 0.1);
+    }
+
+    @Test
+    void devicesHaveSeparateBaselines() {
+        AnomalyDetector detector = detector();
+        steady(detector, "quiet", 20);
+        for (long w = 0; w < 20; w++) {
+            fill(detector, "busy", w, 200, 0);
+        }
+
+        assertTrue(fill(detector, "busy", 20, 200, 0).isEmpty());
+        assertEquals(2, detector.devices());
+    }
+
+    @Test
+    void ignoresLateEventsForClosedWindows() {
+        AnomalyDetector detector = detector();
+        steady(detector, "dev", 20);
+        fill(detector, "dev", 21, 5, 0);
+
+        for (int i = 0; i < 500; i++) {
+            assertNull(detector.record("dev", START + 20 * WINDOW, false));
+        }
+    }
+
+    @Test
+    void silentWindowsLowerTheBaseline() {
+        AnomalyDetector detector = detector();
+        steady(detector, "dev", 20);
+
+        // ten minutes of silence while running is real data: a normal window now looks busy
+        assertTrue(!fill(detector, "dev", 600, 30, 0).isEmpty());
+    }
+
+    @Test
+    void restoreDoesNotFoldDowntimeIntoBaseline() throws IOException {
+        AnomalyDetector before = detector();
+        steady(before, "dev", 20);
+        fill(before, "dev", 20, 3, 0); // window interrupted by the shutdown
+
+        AnomalyDetector after = detector();
+        assertEquals(1, after.readSnapshot(snapshot(before)));
+
+        assertTrue(fill(after, "dev", 600, 30, 10).isEmpty());
+        assertEquals(1, fill(after, "dev", 601, 40, 10).size(), "baseline kept its pre-restart level");
+    }
+
+    @Test
+    void restoredBaselineContinuesInSameWindow() throws IOException {
+        AnomalyDetector before = detector();
+        steady(before, "dev", 20);
+
+        AnomalyDetector after = detector();
+        after.readSnapshot(snapshot(before));
+
+        assertTrue(fill(after, "dev", 20, 20, 10).isEmpty());
+        assertTrue(fill(after, "dev", 21, 20, 10).isEmpty());
+        assertTrue(!fill(after, "dev", 22, 200, 10).isEmpty());
+    }
+
+    @Test
+    void rejectsSnapshotWithDifferentWindow() throws IOException {
+        AnomalyDetector before = detector();
+        steady(before, "dev", 2);
+        AnomalyDetector other = new AnomalyDetector(16, 2 * WINDOW, 0.05, WARMUP, 5, 3, 5, 8);
+
+        assertThrows(IOException.class, () -> other.readSnapshot(snapshot(before)));
+        assertThrows(IOException.class,
+                () -> other.readSnapshot(new DataInputStream(new ByteArrayInputStream(new byte[8]))));
+    }
+
+    private static DataInputStream snapshot(AnomalyDetector detector) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            detector.writeSnapshot(out);
+        }
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
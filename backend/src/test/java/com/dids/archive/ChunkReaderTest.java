@@ -0,0 +1,111 @@
+package com.dids.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkReaderTest {
+
+    private static byte[] member(String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private static String text(byte[] chunk) {
+        return new String(chunk, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hands out a few bytes per read and reports nothing available, like a slow upload.
+     */
+    private static InputStream trickle(byte[] data) {
+        return new FilterInputStream(new ByteArrayInputStream(data)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 7));
+            }
+
+            @Override
+            public int available() {
+                return 0;
+            }
+        };
+    }
+
+    @Test
+    void readsEveryMemberOfASlowStream() throws IOException {
+        byte[] archive = concat(member("first\n"), member("second\n".repeat(1000)), member(""), member("last"));
+        try (ChunkReader reader = new ChunkReader(trickle(archive), 1 << 20)) {
+            assertEquals("first\n", text(reader.next()));
+            assertEquals("second\n".repeat(1000), text(reader.next()));
+            assertEquals("", text(reader.next()));
+            assertEquals("last", text(reader.next()));
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void failsWhenInputEndsInsideAMember() throws IOException {
+        byte[] second = member("second chunk");
+        for (int cut : new int[]{1, 10, second.length - 4, second.length - 1}) {
+            byte[] archive = concat(member("first"), Arrays.copyOf(second, cut));
+            try (ChunkReader reader = new ChunkReader(new ByteArrayInputStream(archive), 1 << 20)) {
+                assertEquals("first", text(reader.next()));
+                assertThrows(EOFException.class, reader::next, "cut at " + cut);
+            }
+        }
+    }
+
+    @Test
+    void rejectsNonGzipAndCorruptData() throws IOException {
+        try (ChunkReader reader = new ChunkReader(new ByteArrayInputStream("{\"a\":1}".getBytes()), 1 << 20)) {
+            assertThrows(ZipException.class, reader::next);
+        }
+        byte[] corrupt = member("some content");
+        corrupt[corrupt.length - 6] ^= 0x55; // CRC
+        try (ChunkReader reader = new ChunkReader(new ByteArrayInputStream(corrupt), 1 << 20)) {
+            assertThrows(ZipException.class, reader::next);
+        }
+    }
+
+    @Test
+    void rejectsOversizedChunks() throws IOException {
+        byte[] archive = concat(member("x".repeat(1000)), member("y".repeat(100_000)));
+        try (ChunkReader reader = new ChunkReader(new ByteArrayInputStream(archive), 4096)) {
+            assertArrayEquals("x".repeat(1000).getBytes(StandardCharsets.UTF_8), reader.next());
+            assertThrows(ZipException.class, reader::next);
+        }
+    }
+
+    @Test
+    void emptyInputHasNoChunks() throws IOException {
+        try (ChunkReader reader = new ChunkReader(new ByteArrayInputStream(new byte[0]), 1 << 20)) {
+            assertNull(reader.next());
+        }
+    }
+}
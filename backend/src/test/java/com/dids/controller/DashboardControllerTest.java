@@ -0,0 +1,62 @@
+package com.dids.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static com.dids.controller.DashboardController.matchesAny;
+import static com.dids.controller.DashboardController.sinceVersion;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DashboardControllerTest {
+
+    private static final String ETAG = "W/\"1700000000000-1a2b-ff\"";
+
+    @Test
+    void matchesWeaklyWithOrWithoutPrefix() {
+        assertTrue(matchesAny(ETAG, ETAG));
+        assertTrue(matchesAny("\"1700000000000-1a2b-ff\"", ETAG));
+    }
+
+    @Test
+    void matchesAnyEntryOfAList() {
+        assertTrue(matchesAny("\"other\", W/\"1700000000000-1a2b-ff\"", ETAG));
+        assertTrue(matchesAny("W/\"a,b\",\t\"1700000000000-1a2b-ff\"", ETAG));
+        assertFalse(matchesAny("\"other\", W/\"1700000000000-1a2b\"", ETAG));
+    }
+
+    @Test
+    void matchesWildcard() {
+        assertTrue(matchesAny("*", ETAG));
+    }
+
+    @Test
+    void rejectsMissingOrMalformedHeaders() {
+        assertFalse(matchesAny(null, ETAG));
+        assertFalse(matchesAny("", ETAG));
+        assertFalse(matchesAny("1700000000000-1a2b-ff", ETAG));
+        assertFalse(matchesAny("W/\"1700000000000-1a2b-ff", ETAG));
+        assertFalse(matchesAny("\"1700000000000-1a2b-ff-extra\"", ETAG));
+    }
+
+    @Test
+    void sinceTokenIsHonouredForTheSamePermissions() {
+        assertEquals(1700000000042L, sinceVersion("1700000000042.ff", "ff"));
+    }
+
+    @Test
+    void sinceTokenFromOtherPermissionsForcesFullSnapshot() {
+        assertNull(sinceVersion("1700000000042.ff", "fe"));
+        assertNull(sinceVersion("1700000000042", "ff"));
+        assertNull(sinceVersion(null, "ff"));
+        assertNull(sinceVersion(" ", "ff"));
+    }
+
+    @Test
+    void rejectsMalformedSinceToken() {
+        assertThrows(IllegalArgumentException.class, () -> sinceVersion("abc.ff", "ff"));
+        assertThrows(IllegalArgumentException.class, () -> sinceVersion(".ff", "ff"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.dids.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AgentJsonParserTest {
+
+    private final AgentJsonParser parser = new AgentJsonParser(new SymbolTable(1024));
+
+    private ParsedEvent parse(String json) {
+        ParsedEvent event = new ParsedEvent();
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return parser.parse(bytes, 0, bytes.length, event) ? event : null;
+    }
+
+    @Test
+    void parsesWindowsEventWithNestedFields() {
+        ParsedEvent e = parse("{\"EventID\":4625,\"Computer\":\"DC01\",\"TimeCreated\":{\"SystemTime\":\"2024-03-01T12:00:00Z\"},"
+                + "\"EventData\":{\"SubjectUserName\":\"SYSTEM\",\"TargetUserName\":\"bob\",\"IpAddress\":\"198.51.100.9\"}}");
+
+        assertEquals(4625, e.getEventCode());
+        assertEquals("DC01", e.getHost());
+        assertEquals("bob", e.getUser());
+        assertEquals("198.51.100.9", e.getSourceIp());
+        assertEquals(ByteScan.epochMillis(2024, 3, 1, 12, 0, 0, 0, 0), e.getTimestamp());
+        assertEquals(Vocabulary.windowsEvent(4625), e.getEvent());
+    }
+
+    @Test
+    void unescapesStrings() {
+        ParsedEvent e = parse("{\"message\":\"say \\\"hi\\\"\\n\\tC:\\\\temp \\u00e9\\ud83d\\ude00\",\"user\":\"a\\\"b\"}");
+        assertEquals("say \"hi\"\n\tC:\\temp é😀", e.getMessage());
+        assertEquals("a\"b", e.getUser());
+    }
+
+    @Test
+    void keepsNonAsciiText() {
+        ParsedEvent e = parse("{\"host\":\"сервер\",\"msg\":\"ошибка диска — 致命\"}");
+        assertEquals("сервер", e.getHost());
+        assertEquals("ошибка диска — 致命", e.getMessage());
+    }
+
+    @Test
+    void rejectsTruncatedDocuments() {
+        assertNull(parse("{\"message\":\"unterminated"));
+        assertNull(parse("{\"message\":\"ok\""));
+        assertNull(parse("{\"a\":[1,2"));
+        assertNull(parse("{\"a\" 1}"));
+        assertNull(parse("not json"));
+    }
+
+    @Test
+    void rejectsExcessiveNesting() {
+        assertNull(parse("{\"a\":".repeat(40) + "1" + "}".repeat(40)));
+    }
+
+    @Test
+    void skipsNullsArraysAndUnknownKeys() {
+        ParsedEvent e = parse("{\"user\":null,\"tags\":[\"x\",{\"user\":\"nested\"},[1]],\"extra\":true,\"level\":\"Error\"}");
+        assertEquals("nested", e.getUser());
+        assertEquals("error", e.getLevel());
+        assertEquals(Vocabulary.AGENT_EVENT, e.getEvent());
+    }
+
+    @Test
+    void treatsWindowsDashAsNoAddress() {
+        ParsedEvent e = parse("{\"IpAddress\":\"-\",\"Level\":2}");
+        assertNull(e.getSourceIp());
+        assertEquals("error", e.getLevel());
+    }
+
+    @Test
+    void keepsMalformedUnicodeEscapesLiterally() {
+        assertEquals("a\\uZZZZb \u00e9", parse("{\"message\":\"a\\uZZZZb \\u00e9\"}").getMessage());
+        assertEquals("x\\u12g4", parse("{\"message\":\"x\\u12g4\"}").getMessage());
+        assertEquals("end \\u12", parse("{\"message\":\"end \\u12\"}").getMessage());
+    }
+
+    @Test
+    void mapsWindowsLevelsNumericOrQuoted() {
+        assertEquals("error", parse("{\"Level\":\"2\"}").getLevel());
+        assertEquals("warning", parse("{\"Level\":3}").getLevel());
+        assertEquals("info", parse("{\"Level\":\"4\"}").getLevel());
+        assertEquals("warning", parse("{\"level\":\"Warning\"}").getLevel());
+    }
+
+    @Test
+    void mapsNumericSeverityAsSyslog() {
+        ParsedEvent e = parse("{\"severity\":3}");
+        assertEquals("error", e.getLevel());
+        assertEquals(3, e.getSeverity());
+        assertEquals("warning", parse("{\"severity\":\"4\"}").getLevel());
+        assertEquals("info", parse("{\"severity\":5}").getLevel());
+        assertEquals("error", parse("{\"severity\":0}").getLevel());
+        assertEquals("error", parse("{\"severity\":\"critical\"}").getLevel());
+        assertEquals(-1, parse("{\"severity\":\"critical\"}").getSeverity());
+    }
+
+    @Test
+    void parsesEpochSecondsAndMillis() {
+        assertEquals(1_700_000_000_000L, parse("{\"time\":1700000000}").getTimestamp());
+        assertEquals(1_700_000_000_123L, parse("{\"time\":1700000000123}").getTimestamp());
+    }
+}
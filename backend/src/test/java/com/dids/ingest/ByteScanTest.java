@@ -0,0 +1,59 @@
+package com.dids.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ByteScanTest {
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long iso(String s) {
+        byte[] b = bytes(s);
+        return ByteScan.parseIsoTimestamp(b, 0, b.length);
+    }
+
+    @Test
+    void parsesIsoTimestamps() {
+        assertEquals(ByteScan.epochMillis(2024, 2, 29, 23, 59, 59, 0, 0), iso("2024-02-29T23:59:59Z"));
+        assertEquals(ByteScan.epochMillis(2024, 2, 29, 23, 59, 59, 0, 0), iso("2024-02-29 23:59:59"));
+        assertEquals(ByteScan.epochMillis(2024, 3, 1, 4, 59, 59, 987, 0), iso("2024-02-29T23:59:59.987654-05:00"));
+        assertEquals(ByteScan.epochMillis(2024, 2, 29, 18, 29, 59, 0, 0), iso("2024-02-29T23:59:59+0530"));
+        assertEquals(0L, ByteScan.epochMillis(1970, 1, 1, 0, 0, 0, 0, 0));
+    }
+
+    @Test
+    void rejectsMalformedOrTruncatedTimestamps() {
+        assertEquals(ByteScan.NO_TIME, iso(""));
+        assertEquals(ByteScan.NO_TIME, iso("2024-02-29T23:59"));
+        assertEquals(ByteScan.NO_TIME, iso("2024-13-01T00:00:00Z"));
+        assertEquals(ByteScan.NO_TIME, iso("2024/02/29T23:59:59Z"));
+        assertEquals(ByteScan.NO_TIME, iso("2024-02-29X23:59:59Z"));
+    }
+
+    @Test
+    void parsesBoundedUnsignedNumbers() {
+        byte[] b = bytes("x12345y");
+        assertEquals(12345, ByteScan.parseInt(b, 1, 6));
+        assertEquals(-1, ByteScan.parseInt(b, 1, 1));
+        assertEquals(-1, ByteScan.parseInt(b, 0, 6));
+        assertEquals(-1, ByteScan.parseInt(bytes("1234567890"), 0, 10));
+        assertEquals(-1, ByteScan.parseInt(bytes("-1"), 0, 2));
+        assertEquals(123456789012345678L, ByteScan.parseLong(bytes("123456789012345678"), 0, 18));
+    }
+
+    @Test
+    void findsBytesAndTokensWithinBounds() {
+        byte[] b = bytes("Failed password for root from 10.0.0.1");
+        assertEquals(15, ByteScan.indexOf(b, 0, b.length, bytes(" for ")));
+        assertEquals(-1, ByteScan.indexOf(b, 0, 18, bytes(" for ")));
+        assertEquals(-1, ByteScan.indexOf(b, 0, b.length, bytes("missing")));
+        assertEquals(6, ByteScan.tokenEnd(b, 0, b.length));
+        assertEquals(7, ByteScan.skipSpaces(b, 6, b.length));
+        assertEquals(b.length, ByteScan.tokenEnd(b, 30, b.length));
+    }
+}
@@ -0,0 +1,87 @@
+package com.dids.ingest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link LogParser} on representative syslog and agent JSON lines.
+ *
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.dids.ingest.LogParserBenchmark}, adding {@code -prof gc} to the
+ * options to check the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogParserBenchmark {
+
+    private static final String[] SYSLOG = {
+            "<38>Oct 11 22:14:15 web-01 sshd[4123]: Failed password for invalid user admin from 203.0.113.7 port 51122 ssh2",
+            "<38>Oct 11 22:14:16 web-01 sshd[4124]: Accepted publickey for deploy from 198.51.100.4 port 40022 ssh2",
+            "<85>Oct 11 22:15:01 web-01 sudo:    alice : TTY=pts/0 ; PWD=/home/alice ; USER=root ; COMMAND=/usr/bin/systemctl restart nginx",
+            "<4>Oct 11 22:16:44 fw-02 kernel: [UFW BLOCK] IN=eth0 OUT= SRC=192.0.2.15 DST=10.0.0.4 PROTO=TCP SPT=443 DPT=22",
+            "<165>1 2024-10-11T22:14:15.003Z mymachine.example.com evntslog 1234 ID47 [exampleSDID@32473 iut=\"3\"] An application event log entry",
+    };
+
+    private static final String[] AGENT = {
+            "{\"EventID\":4625,\"Computer\":\"WS-0042\",\"TimeCreated\":{\"SystemTime\":\"2024-10-11T22:14:15.1234567Z\"},"
+                    + "\"EventData\":{\"TargetUserName\":\"administrator\",\"IpAddress\":\"203.0.113.9\",\"LogonType\":3},"
+                    + "\"Message\":\"An account failed to log on.\"}",
+            "{\"event\":\"file_modified\",\"level\":\"warning\",\"host\":\"db-01\",\"timestamp\":1728684855,"
+                    + "\"user\":\"postgres\",\"message\":\"/etc/passwd modified\",\"tags\":[\"fim\",\"critical-path\"]}",
+    };
+
+    private LogParser parser;
+    private byte[][] syslog;
+    private byte[][] agent;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        parser = new LogParser(65536);
+        syslog = encode(SYSLOG);
+        agent = encode(AGENT);
+    }
+
+    @Benchmark
+    public void syslog(Blackhole bh) {
+        byte[] line = syslog[next++ % syslog.length];
+        bh.consume(parser.parse(line, 0, line.length));
+    }
+
+    @Benchmark
+    public void agentJson(Blackhole bh) {
+        byte[] line = agent[next++ % agent.length];
+        bh.consume(parser.parse(line, 0, line.length));
+    }
+
+    private static byte[][] encode(String[] lines) {
+        byte[][] out = new byte[lines.length][];
+        for (int i = 0; i < lines.length; i++) {
+            out[i] = lines[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return out;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LogParserBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,109 @@
+package com.dids.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyslogParserTest {
+
+    private final SyslogParser parser = new SyslogParser(new SymbolTable(1024));
+
+    private ParsedEvent parse(String line) {
+        ParsedEvent event = new ParsedEvent();
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return parser.parse(bytes, 0, bytes.length, event) ? event : null;
+    }
+
+    @Test
+    void parsesRfc3164SshFailure() {
+        parser.setDefaultYear(2024);
+        ParsedEvent e = parse("<38>Oct 11 22:14:15 web-01 sshd[4123]: Failed password for invalid user admin from 203.0.113.7 port 51122 ssh2");
+
+        assertEquals(4, e.getFacility());
+        assertEquals(6, e.getSeverity());
+        assertEquals(ByteScan.epochMillis(2024, 10, 11, 22, 14, 15, 0, 0), e.getTimestamp());
+        assertEquals("web-01", e.getHost());
+        assertEquals("sshd", e.getProgram());
+        assertEquals(4123, e.getPid());
+        assertEquals("ssh_login_failed", e.getEvent());
+        assertEquals("warning", e.getLevel());
+        assertEquals("admin", e.getUser());
+        assertEquals("203.0.113.7", e.getSourceIp());
+    }
+
+    @Test
+    void parsesRfc5424WithStructuredData() {
+        ParsedEvent e = parse("<165>1 2024-03-01T12:00:00.123+02:00 fw-02 kernel - ID47 [meta a=\"x]\\\"y\"] UFW BLOCK SRC=192.0.2.15 DST=10.0.0.4");
+
+        assertEquals(ByteScan.epochMillis(2024, 3, 1, 10, 0, 0, 123, 0), e.getTimestamp());
+        assertEquals("fw-02", e.getHost());
+        assertEquals("kernel", e.getProgram());
+        assertEquals(-1, e.getPid());
+        assertEquals("kernel_firewall", e.getEvent());
+        assertEquals("192.0.2.15", e.getSourceIp());
+        assertEquals("UFW BLOCK SRC=192.0.2.15 DST=10.0.0.4", e.getMessage());
+    }
+
+    @Test
+    void rejectsBadPri() {
+        assertNull(parse("<>Oct 11 22:14:15 host app: x"));
+        assertNull(parse("<192>Oct 11 22:14:15 host app: x"));
+        assertNull(parse("<1a>Oct 11 22:14:15 host app: x"));
+        assertNull(parse("<38 no closing bracket"));
+        assertNull(parse("<123456>too long"));
+    }
+
+    @Test
+    void rejectsUnterminatedStructuredData() {
+        assertNull(parse("<34>1 2024-03-01T12:00:00Z host app 1 - [id a=\"b"));
+    }
+
+    @Test
+    void rejectsEmptyLines() {
+        assertNull(parse(""));
+        assertNull(parse("\r\n"));
+    }
+
+    @Test
+    void keepsTruncatedLinesAsMessages() {
+        ParsedEvent e = parse("<34>Oct 11 22:14");
+        assertFalse(e.hasTimestamp());
+        assertEquals("Oct 11 22:14", e.getMessage());
+
+        e = parse("<34>");
+        assertEquals("", e.getMessage());
+
+        e = parse("<34>1 ");
+        assertFalse(e.hasTimestamp());
+        assertNull(e.getHost());
+    }
+
+    @Test
+    void stripsTrailingLineBreaks() {
+        ParsedEvent e = parse("<13>Oct  1 02:03:04 host app: hello\r\n");
+        assertEquals("hello", e.getMessage());
+        assertTrue(e.hasTimestamp());
+    }
+
+    @Test
+    void decodesNonAsciiAsUtf8() {
+        ParsedEvent e = parse("<13>Oct  1 02:03:04 hôte app[7]: café → ok 😀");
+        assertEquals("hôte", e.getHost());
+        assertEquals("café → ok 😀", e.getMessage());
+    }
+
+    @Test
+    void handlesMissingHostname() {
+        ParsedEvent e = parse("<86>Oct 11 22:15:01 sudo:    alice : TTY=pts/0 ; PWD=/home/alice ; USER=root ; COMMAND=/usr/bin/id");
+        assertNull(e.getHost());
+        assertEquals("sudo", e.getProgram());
+        assertEquals("sudo_command", e.getEvent());
+        assertEquals("alice", e.getUser());
+        assertEquals("root", e.getTargetUser());
+    }
+}
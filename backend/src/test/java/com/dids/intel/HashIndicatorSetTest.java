@@ -0,0 +1,103 @@
+package com.dids.intel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashIndicatorSetTest {
+
+    private static final String MD5 = "d41d8cd98f00b204e9800998ecf8427e";
+    private static final String SHA1 = "da39a3ee5e6b4b0d3255bfef95601890afd80709";
+    private static final String SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private static boolean contains(HashIndicatorSet set, String digest) {
+        return set.contains(digest, 0, digest.length());
+    }
+
+    /**
+     * A distinct 64-character digest per index.
+     */
+    private static String digest(int i) {
+        return String.format(Locale.ROOT, "%016x", i * 0x9e3779b97f4a7c15L).repeat(4);
+    }
+
+    @Test
+    void findsEachDigestLength() {
+        HashIndicatorSet.Builder builder = new HashIndicatorSet.Builder();
+        assertTrue(builder.add(MD5));
+        assertTrue(builder.add(" " + SHA1.toUpperCase(Locale.ROOT) + " "));
+        assertTrue(builder.add(SHA256));
+        HashIndicatorSet set = builder.build();
+
+        assertEquals(3, set.size());
+        assertTrue(contains(set, MD5.toUpperCase(Locale.ROOT)));
+        assertTrue(contains(set, SHA1));
+        assertTrue(contains(set, SHA256));
+        assertFalse(contains(set, SHA256.substring(0, 32)));
+    }
+
+    @Test
+    void tagsDigestLengthSoSharedPrefixesDoNotCollide() {
+        // same leading 128 bits, different digest lengths
+        String md5 = SHA256.substring(0, 32);
+        String sha1 = SHA256.substring(0, 40);
+        HashIndicatorSet.Builder builder = new HashIndicatorSet.Builder();
+        builder.add(SHA256);
+        HashIndicatorSet set = builder.build();
+
+        assertFalse(contains(set, md5));
+        assertFalse(contains(set, sha1));
+
+        builder.add(md5);
+        builder.add(sha1);
+        set = builder.build();
+        assertEquals(3, set.size());
+        assertTrue(contains(set, md5));
+        assertTrue(contains(set, sha1));
+    }
+
+    @Test
+    void deduplicatesIgnoringCase() {
+        HashIndicatorSet.Builder builder = new HashIndicatorSet.Builder();
+        builder.add(MD5);
+        builder.add(MD5.toUpperCase(Locale.ROOT));
+        builder.add(MD5);
+
+        assertEquals(1, builder.build().size());
+    }
+
+    @Test
+    void probesPastCollidingSlotsAfterGrowing() {
+        HashIndicatorSet.Builder builder = new HashIndicatorSet.Builder();
+        int entries = 20_000; // pending buffer and table both grow well past their initial sizes
+        for (int i = 0; i < entries; i++) {
+            assertTrue(builder.add(digest(i)));
+        }
+        HashIndicatorSet set = builder.build();
+
+        assertEquals(entries, set.size());
+        for (int i = 0; i < entries; i++) {
+            assertTrue(contains(set, digest(i)), digest(i));
+        }
+        for (int i = entries; i < entries * 2; i++) {
+            assertFalse(contains(set, digest(i)), digest(i));
+        }
+    }
+
+    @Test
+    void rejectsMalformedDigests() {
+        HashIndicatorSet.Builder builder = new HashIndicatorSet.Builder();
+
+        assertFalse(builder.add(""));
+        assertFalse(builder.add(MD5.substring(1)));
+        assertFalse(builder.add(MD5 + "0"));
+        assertFalse(builder.add("g" + MD5.substring(1)));
+        HashIndicatorSet set = builder.build();
+        assertEquals(0, set.size());
+        assertFalse(contains(set, MD5));
+    }
+}
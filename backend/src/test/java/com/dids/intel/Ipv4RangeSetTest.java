@@ -0,0 +1,93 @@
+package com.dids.intel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Ipv4RangeSetTest {
+
+    private static int ip(String address) {
+        long value = Ipv4RangeSet.parseAddress(address, 0, address.length());
+        assertTrue(value >= 0, address);
+        return (int) value;
+    }
+
+    private static Ipv4RangeSet build(String... entries) {
+        Ipv4RangeSet.Builder builder = new Ipv4RangeSet.Builder();
+        for (String entry : entries) {
+            assertTrue(builder.add(entry), entry);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void mergesOverlappingNestedAndAdjacentRanges() {
+        Ipv4RangeSet set = build("10.0.1.0/24", "10.0.0.0/24", "10.0.0.128/25", "10.0.0.7", "10.0.2.0/23");
+
+        assertEquals(1, set.ranges());
+        assertTrue(set.contains(ip("10.0.0.0")));
+        assertTrue(set.contains(ip("10.0.1.255")));
+        assertTrue(set.contains(ip("10.0.3.255")));
+        assertFalse(set.contains(ip("10.0.4.0")));
+        assertFalse(set.contains(ip("9.255.255.255")));
+    }
+
+    @Test
+    void keepsGapsBetweenDisjointRanges() {
+        Ipv4RangeSet set = build("1.2.3.6", "1.2.3.4", "1.2.3.4");
+
+        assertEquals(2, set.ranges());
+        assertTrue(set.contains(ip("1.2.3.4")));
+        assertFalse(set.contains(ip("1.2.3.5")));
+        assertTrue(set.contains(ip("1.2.3.6")));
+        assertFalse(set.contains(ip("1.2.3.7")));
+    }
+
+    @Test
+    void ordersAddressesAboveTheSignBitAsUnsigned() {
+        Ipv4RangeSet set = build("192.168.0.0/16", "127.255.255.255", "128.0.0.0", "255.255.255.255");
+
+        assertEquals(3, set.ranges());
+        assertTrue(set.contains(ip("127.255.255.255")));
+        assertTrue(set.contains(ip("128.0.0.0")));
+        assertTrue(set.contains(ip("192.168.200.1")));
+        assertTrue(set.contains(ip("255.255.255.255")));
+        assertFalse(set.contains(ip("128.0.0.1")));
+        assertFalse(set.contains(ip("0.0.0.0")));
+    }
+
+    @Test
+    void masksHostBitsAndMergesIntoWholeSpace() {
+        Ipv4RangeSet set = build("10.1.2.3/8", "0.0.0.0/1", "128.0.0.0/1");
+
+        assertEquals(1, set.ranges());
+        assertTrue(set.contains(ip("0.0.0.0")));
+        assertTrue(set.contains(ip("10.255.255.255")));
+        assertTrue(set.contains(ip("255.255.255.255")));
+    }
+
+    @Test
+    void rejectsMalformedEntries() {
+        Ipv4RangeSet.Builder builder = new Ipv4RangeSet.Builder();
+        for (String entry : new String[]{"", "1.2.3", "1.2.3.4.5", "256.0.0.1", "1.2.3.4 ", "1..3.4",
+                "0001.2.3.4", "1.2.3.4/33", "1.2.3.4/-1", "1.2.3.4/", "1.2.3.4/x"}) {
+            assertFalse(builder.add(entry), entry);
+        }
+        assertEquals(0, builder.build().ranges());
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        Ipv4RangeSet.Builder builder = new Ipv4RangeSet.Builder();
+        for (int i = 0; i < 5000; i++) {
+            builder.add("10." + (i >> 8) + "." + (i & 255) + ".1");
+        }
+        Ipv4RangeSet set = builder.build();
+
+        assertEquals(5000, set.ranges());
+        assertTrue(set.contains(ip("10.19.135.1")));
+        assertFalse(set.contains(ip("10.19.135.2")));
+    }
+}
@@ -0,0 +1,106 @@
+package com.dids.intel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatternAutomatonTest {
+
+    private static PatternAutomaton substrings(String... patterns) {
+        PatternAutomaton.Builder builder = new PatternAutomaton.Builder();
+        for (String pattern : patterns) {
+            assertTrue(builder.add(pattern, false), pattern);
+        }
+        return builder.build();
+    }
+
+    private static List<String> scan(PatternAutomaton automaton, String text) {
+        List<String> matches = new ArrayList<>();
+        automaton.scan(text, (type, indicator) -> matches.add(type + ":" + indicator));
+        return matches;
+    }
+
+    @Test
+    void reportsEveryOverlappingPattern() {
+        PatternAutomaton automaton = substrings("he", "she", "his", "hers");
+
+        assertEquals(List.of("SUBSTRING:she", "SUBSTRING:he", "SUBSTRING:hers"), scan(automaton, "ushers"));
+        assertEquals(List.of("SUBSTRING:his", "SUBSTRING:she", "SUBSTRING:he"), scan(automaton, "ahishe"));
+    }
+
+    @Test
+    void followsFailureLinksIntoDeeperStates() {
+        // after "abc" fails on 'x' the automaton must resume in "bc", not at the root
+        PatternAutomaton automaton = substrings("abcd", "bcx", "cx");
+
+        assertEquals(List.of("SUBSTRING:bcx", "SUBSTRING:cx"), scan(automaton, "zabcx"));
+        assertEquals(List.of("SUBSTRING:abcd"), scan(automaton, "abcd"));
+    }
+
+    @Test
+    void matchesRepeatedPrefixes() {
+        PatternAutomaton automaton = substrings("aab", "a");
+
+        assertEquals(List.of("SUBSTRING:a", "SUBSTRING:a", "SUBSTRING:a", "SUBSTRING:aab", "SUBSTRING:a"),
+                scan(automaton, "aaaba"));
+    }
+
+    @Test
+    void foldsAsciiCase() {
+        PatternAutomaton automaton = substrings("MimiKatz");
+
+        assertEquals(List.of("SUBSTRING:mimikatz"), scan(automaton, "ran MIMIKATZ.exe"));
+    }
+
+    @Test
+    void matchesDomainsOnLabelBoundariesOnly() {
+        PatternAutomaton.Builder builder = new PatternAutomaton.Builder();
+        builder.add("*.Evil.com", true);
+        PatternAutomaton automaton = builder.build();
+
+        assertEquals(List.of("DOMAIN:evil.com"), scan(automaton, "GET http://cdn.evil.com/x"));
+        assertEquals(List.of("DOMAIN:evil.com"), scan(automaton, "resolved evil.com."));
+        assertTrue(scan(automaton, "notevil.com").isEmpty());
+        assertTrue(scan(automaton, "evil.community").isEmpty());
+        assertTrue(scan(automaton, "evil.com.au").isEmpty());
+    }
+
+    @Test
+    void substringWinsOverDomainWithSameText() {
+        PatternAutomaton.Builder builder = new PatternAutomaton.Builder();
+        builder.add("evil.com", true);
+        builder.add("evil.com", false);
+        PatternAutomaton automaton = builder.build();
+
+        assertEquals(1, automaton.patterns());
+        assertEquals(List.of("SUBSTRING:evil.com"), scan(automaton, "notevil.com"));
+    }
+
+    @Test
+    void rejectsEmptyAndNonAsciiPatterns() {
+        PatternAutomaton.Builder builder = new PatternAutomaton.Builder();
+
+        assertFalse(builder.add("  ", false));
+        assertFalse(builder.add("*.", true));
+        assertFalse(builder.add("bücher.de", true));
+        assertEquals(0, builder.build().patterns());
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        PatternAutomaton.Builder builder = new PatternAutomaton.Builder();
+        for (int i = 0; i < 2000; i++) {
+            builder.add("host" + i + ".example", true);
+        }
+        PatternAutomaton automaton = builder.build();
+
+        assertEquals(2000, automaton.patterns());
+        assertEquals(List.of("DOMAIN:host1999.example"), scan(automaton, "to host1999.example:443"));
+        assertTrue(scan(automaton, "to host2000.example").isEmpty());
+    }
+}
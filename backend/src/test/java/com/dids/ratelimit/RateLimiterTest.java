@@ -0,0 +1,94 @@
+package com.dids.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void concurrentCallersNeverOverAdmit() throws Exception {
+        // one token per 1000 s: nothing refills while the test runs
+        RateLimiter limiter = new RateLimiter(0.001, 50, 60_000 * MS, 100);
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                callers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1_000; i++) {
+                        if (limiter.tryAcquire("shared") == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> caller : callers) {
+                caller.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(50, granted.get());
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        RateLimiter limiter = new RateLimiter(0.001, 1, 60_000 * MS, 100);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(0, limiter.tryAcquire("b"));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void keysBeyondMaxShareTheOverflowBucket() {
+        RateLimiter limiter = new RateLimiter(0.001, 1, 60_000 * MS, 2);
+        long now = System.nanoTime();
+
+        assertEquals(0, limiter.tryAcquire("a", now));
+        assertEquals(0, limiter.tryAcquire("b", now));
+        assertEquals(0, limiter.tryAcquire("c", now));
+        assertTrue(limiter.tryAcquire("d", now) > 0, "d shares c's overflow bucket");
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void fullTableSweepsIdleBuckets() {
+        // 1000 per second, burst 1: a bucket is idle 5 ms after its last token
+        RateLimiter limiter = new RateLimiter(1_000, 1, 5 * MS, 2);
+        long now = System.nanoTime();
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("b", now);
+
+        assertEquals(0, limiter.tryAcquire("c", now + 10 * MS));
+        assertEquals(1, limiter.size());
+        assertEquals(0, limiter.tryAcquire("d", now + 10 * MS));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1, MS, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 0, MS, 10));
+    }
+}
@@ -0,0 +1,77 @@
+package com.dids.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long INTERVAL = 100 * MS; // 10 per second
+    private static final long TOLERANCE = 3 * INTERVAL; // burst of 3
+
+    @Test
+    void grantsBurstThenReportsWaitUntilNextToken() {
+        long t0 = 1_000 * MS;
+        TokenBucket bucket = new TokenBucket(t0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(t0, INTERVAL, TOLERANCE));
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(t0, INTERVAL, TOLERANCE));
+        assertEquals(40 * MS, bucket.tryAcquire(t0 + 60 * MS, INTERVAL, TOLERANCE));
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        long t0 = 1_000 * MS;
+        TokenBucket bucket = new TokenBucket(t0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(t0, INTERVAL, TOLERANCE);
+        }
+
+        assertEquals(0, bucket.tryAcquire(t0 + INTERVAL, INTERVAL, TOLERANCE));
+        assertTrue(bucket.tryAcquire(t0 + INTERVAL, INTERVAL, TOLERANCE) > 0);
+        assertEquals(0, bucket.tryAcquire(t0 + 2 * INTERVAL, INTERVAL, TOLERANCE));
+    }
+
+    @Test
+    void refillStopsAtBurst() {
+        long t0 = 1_000 * MS;
+        TokenBucket bucket = new TokenBucket(t0);
+        long later = t0 + 1_000 * INTERVAL;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later, INTERVAL, TOLERANCE));
+        }
+        assertTrue(bucket.tryAcquire(later, INTERVAL, TOLERANCE) > 0);
+    }
+
+    @Test
+    void keepsLimitingAcrossNanoTimeWrap() {
+        long t0 = Long.MAX_VALUE - 150 * MS;
+        TokenBucket bucket = new TokenBucket(t0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(t0, INTERVAL, TOLERANCE));
+        }
+
+        // the bucket's state has wrapped past Long.MAX_VALUE while now has not
+        assertEquals(INTERVAL, bucket.tryAcquire(t0, INTERVAL, TOLERANCE));
+        long wrapped = t0 + INTERVAL + 60 * MS;
+        assertTrue(wrapped < 0);
+        assertEquals(0, bucket.tryAcquire(wrapped, INTERVAL, TOLERANCE));
+        assertEquals(40 * MS, bucket.tryAcquire(wrapped, INTERVAL, TOLERANCE));
+    }
+
+    @Test
+    void becomesIdleOnceFullForLongEnough() {
+        long t0 = Long.MAX_VALUE - 50 * MS;
+        TokenBucket bucket = new TokenBucket(t0);
+        bucket.tryAcquire(t0, INTERVAL, TOLERANCE);
+
+        assertFalse(bucket.isIdle(t0 + INTERVAL, TOLERANCE));
+        assertTrue(bucket.isIdle(t0 + INTERVAL + TOLERANCE + 1, TOLERANCE));
+    }
+}
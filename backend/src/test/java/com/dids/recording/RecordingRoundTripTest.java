@@ -0,0 +1,125 @@
+package com.dids.recording;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordingRoundTripTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    private Path data() {
+        return dir.resolve("r" + RecordingFormat.DATA_SUFFIX);
+    }
+
+    private Path index() {
+        return dir.resolve("r" + RecordingFormat.INDEX_SUFFIX);
+    }
+
+    /**
+     * Writes {@code lines} lines 10ms apart into 256 byte blocks, so the recording spans many frames.
+     */
+    private List<String> write(int lines) throws IOException {
+        List<String> written = new ArrayList<>();
+        try (RecordingWriter writer = new RecordingWriter(data(), index(), 256, Runnable::run)) {
+            for (int i = 0; i < lines; i++) {
+                String line = "line " + i + " \u00e9\u4e2d";
+                writer.append(START + i * 10L, line);
+                written.add(line);
+            }
+        }
+        return written;
+    }
+
+    private static List<String> readFrom(RecordingReader reader, long from) throws Exception {
+        List<String> lines = new ArrayList<>();
+        reader.seek(from);
+        reader.read((timestamp, line) -> {
+            if (timestamp >= from) {
+                assertEquals(START + Integer.parseInt(line.split(" ")[1]) * 10L, timestamp);
+                lines.add(line);
+            }
+            return true;
+        });
+        return lines;
+    }
+
+    @Test
+    void readsBackEveryLineWithItsTimestamp() throws Exception {
+        List<String> written = write(200);
+
+        try (RecordingReader reader = new RecordingReader(data(), index())) {
+            assertEquals(START, reader.startTime());
+            assertEquals(written, readFrom(reader, reader.startTime()));
+        }
+    }
+
+    @Test
+    void seekSkipsEarlierFrames() throws Exception {
+        List<String> written = write(200);
+
+        try (RecordingReader reader = new RecordingReader(data(), index())) {
+            assertEquals(written.subList(123, 200), readFrom(reader, START + 1230));
+        }
+    }
+
+    @Test
+    void emptyIndexFallsBackToTheFirstFrame() throws Exception {
+        List<String> written = write(50);
+        Files.write(index(), new byte[0]);
+
+        try (RecordingReader reader = new RecordingReader(data(), index())) {
+            assertEquals(START, reader.startTime());
+            assertEquals(written, readFrom(reader, reader.startTime()));
+        }
+    }
+
+    @Test
+    void missingIndexFallsBackToTheFirstFrame() throws Exception {
+        List<String> written = write(50);
+        Files.delete(index());
+
+        try (RecordingReader reader = new RecordingReader(data(), index())) {
+            assertEquals(START, reader.startTime());
+            assertEquals(written.subList(20, 50), readFrom(reader, START + 200));
+        }
+    }
+
+    @Test
+    void truncatedTrailingFrameIsIgnored() throws Exception {
+        write(200);
+        long size = Files.size(data());
+        try (FileChannel channel = FileChannel.open(data(), StandardOpenOption.WRITE)) {
+            channel.truncate(size - 5);
+        }
+
+        try (RecordingReader reader = new RecordingReader(data(), index())) {
+            List<String> lines = readFrom(reader, reader.startTime());
+            assertTrue(lines.size() > 0 && lines.size() < 200);
+            assertEquals("line 0 \u00e9\u4e2d", lines.get(0));
+        }
+    }
+
+    @Test
+    void emptyRecordingHasNoStartTime() throws Exception {
+        new RecordingWriter(data(), index(), 256, Runnable::run).close();
+
+        try (RecordingReader reader = new RecordingReader(data(), index())) {
+            assertEquals(-1, reader.startTime());
+            assertEquals(List.of(), readFrom(reader, 0));
+        }
+    }
+}
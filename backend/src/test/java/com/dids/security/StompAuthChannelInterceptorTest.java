@@ -0,0 +1,126 @@
+package com.dids.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StompAuthChannelInterceptorTest {
+
+    private final DeviceIndex deviceIndex = new DeviceIndex();
+    private final AuthorizationService authorizationService = mock(AuthorizationService.class);
+    private final StompAuthChannelInterceptor interceptor = new StompAuthChannelInterceptor(authorizationService);
+
+    private Authentication viewer;
+    private Authentication analyst;
+    private Authentication admin;
+
+    @BeforeEach
+    void setUp() {
+        int slot = deviceIndex.register("dev-1");
+        deviceIndex.register("dev-2");
+        UserPermissions viewerPermissions = new UserPermissions("viewer", "viewer", Permission.VIEW.bit(), false,
+                new long[]{1L << slot}, Long.MAX_VALUE, List.of(), deviceIndex);
+        UserPermissions analystPermissions = new UserPermissions("analyst", "analyst",
+                Permission.mask(Permission.VIEW, Permission.VIEW_RECORDINGS), false,
+                new long[]{1L << slot}, Long.MAX_VALUE, List.of(), deviceIndex);
+        UserPermissions adminPermissions = new UserPermissions("admin", "admin", Permission.mask(Permission.values()),
+                true, new long[0], Long.MAX_VALUE, List.of(), deviceIndex);
+        viewer = new UsernamePasswordAuthenticationToken(viewerPermissions, "viewer-token");
+        analyst = new UsernamePasswordAuthenticationToken(analystPermissions, "analyst-token");
+        admin = new UsernamePasswordAuthenticationToken(adminPermissions, "admin-token");
+        when(authorizationService.permissionsFor(viewer)).thenReturn(viewerPermissions);
+        when(authorizationService.permissionsFor(analyst)).thenReturn(analystPermissions);
+        when(authorizationService.permissionsFor(admin)).thenReturn(adminPermissions);
+    }
+
+    @Test
+    void allowsSubscriptionToAccessibleDevice() {
+        assertDoesNotThrow(() -> subscribe(viewer, "/topic/terminal/dev-1"));
+        assertDoesNotThrow(() -> subscribe(viewer, "/topic/alerts/device/dev-1"));
+    }
+
+    @Test
+    void requiresRecordingPermissionForReplays() {
+        assertThrows(MessageDeliveryException.class, () -> subscribe(viewer, "/topic/terminal/replay/dev-1"));
+        assertDoesNotThrow(() -> subscribe(analyst, "/topic/terminal/replay/dev-1"));
+    }
+
+    @Test
+    void deniesSubscriptionToOtherDevice() {
+        assertThrows(MessageDeliveryException.class, () -> subscribe(viewer, "/topic/terminal/dev-2"));
+        assertThrows(MessageDeliveryException.class, () -> subscribe(analyst, "/topic/terminal/replay/dev-2"));
+        assertThrows(MessageDeliveryException.class, () -> subscribe(viewer, "/topic/alerts/device/dev-2"));
+    }
+
+    @Test
+    void deniesPatternSubscriptions() {
+        for (String destination : List.of("/topic/**", "/topic/*/*", "/topic/terminal/*", "/topic/terminal/dev-?",
+                "/topic/terminal/{id}", "/topic/terminal/replay/**")) {
+            assertThrows(MessageDeliveryException.class, () -> subscribe(viewer, destination), destination);
+            assertThrows(MessageDeliveryException.class, () -> subscribe(admin, destination), destination);
+        }
+    }
+
+    @Test
+    void deniesDestinationsOutsideAllowlist() {
+        for (String destination : List.of("/topic", "/topic/", "/topic/unknown", "/queue/anything",
+                "/topic/terminal/dev-1/extra", "/topic/broadcast/abc", "/topic/alerts/device/", "/topic/alerts/device/dev-1/x")) {
+            assertThrows(MessageDeliveryException.class, () -> subscribe(viewer, destination), destination);
+        }
+    }
+
+    @Test
+    void restrictsFleetWideTopicsToAllDeviceUsers() {
+        assertThrows(MessageDeliveryException.class, () -> subscribe(viewer, "/topic/alerts"));
+        assertDoesNotThrow(() -> subscribe(admin, "/topic/alerts"));
+    }
+
+    @Test
+    void restrictsBroadcastTopicToItsStarter() {
+        assertDoesNotThrow(() -> subscribe(admin, "/topic/broadcast/admin/abc"));
+        assertThrows(MessageDeliveryException.class, () -> subscribe(admin, "/topic/broadcast/viewer/abc"));
+        assertThrows(MessageDeliveryException.class, () -> subscribe(admin, "/topic/broadcast/abc"));
+        assertThrows(MessageDeliveryException.class, () -> subscribe(admin, "/topic/broadcast/admin/abc/x"));
+        assertThrows(MessageDeliveryException.class, () -> subscribe(viewer, "/topic/broadcast/viewer/abc"));
+    }
+
+    @Test
+    void deniesUnauthenticatedSubscription() {
+        assertThrows(MessageDeliveryException.class, () -> subscribe(null, "/topic/terminal/dev-1"));
+    }
+
+    @Test
+    void deniesSendingStraightToBroker() {
+        assertThrows(MessageDeliveryException.class, () -> send(viewer, "/topic/terminal/dev-1"));
+        assertDoesNotThrow(() -> send(viewer, "/app/terminal"));
+    }
+
+    private void subscribe(Authentication user, String destination) {
+        interceptor.preSend(frame(StompCommand.SUBSCRIBE, user, destination), null);
+    }
+
+    private void send(Authentication user, String destination) {
+        interceptor.preSend(frame(StompCommand.SEND, user, destination), null);
+    }
+
+    private static Message<byte[]> frame(StompCommand command, Authentication user, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
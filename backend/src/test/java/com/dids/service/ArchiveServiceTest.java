@@ -0,0 +1,144 @@
+package com.dids.service;
+
+import com.dids.dto.ArchiveExportRequest;
+import com.dids.dto.ArchiveImportResult;
+import com.dids.model.Alert;
+import com.dids.model.Log;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ArchiveServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final List<Document> logs = new ArrayList<>();
+    private final List<Document> alerts = new ArrayList<>();
+    private final List<Document> stored = Collections.synchronizedList(new ArrayList<>());
+    private ArchiveService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        for (int i = 0; i < 25; i++) {
+            logs.add(new Document("_id", new ObjectId())
+                    .append("deviceId", "dev-" + i % 3)
+                    .append("bytes", 5L)
+                    .append("score", 2.0)
+                    .append("timestamp", new Date(1_700_000_000_000L + i)));
+        }
+        for (int i = 0; i < 7; i++) {
+            alerts.add(new Document("_id", new ObjectId()).append("deviceId", "dev-1").append("count", i));
+        }
+
+        when(mongoTemplate.getCollectionName(Log.class)).thenReturn("logs");
+        when(mongoTemplate.getCollectionName(Alert.class)).thenReturn("alerts");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("logs"))).thenAnswer(call -> logs.stream());
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("alerts"))).thenAnswer(call -> alerts.stream());
+        for (String name : List.of("logs", "alerts")) {
+            MongoCollection<Document> collection = mock(MongoCollection.class);
+            when(collection.insertMany(anyList(), any(InsertManyOptions.class))).thenAnswer(call -> {
+                stored.addAll(call.getArgument(0));
+                return null;
+            });
+            when(mongoTemplate.getCollection(name)).thenReturn(collection);
+        }
+
+        service = new ArchiveService(mongoTemplate, mock(DashboardService.class), 4, 4);
+        ReflectionTestUtils.setField(service, "partitions", 1);
+        ReflectionTestUtils.setField(service, "chunkDocuments", 10);
+        ReflectionTestUtils.setField(service, "chunkBytes", 1 << 20);
+        ReflectionTestUtils.setField(service, "cursorBatchSize", 100);
+        ReflectionTestUtils.setField(service, "readersPerRequest", 2);
+        ReflectionTestUtils.setField(service, "importParallelism", 2);
+        ReflectionTestUtils.setField(service, "maxImportChunkDocuments", 50_000);
+        ReflectionTestUtils.setField(service, "maxImportChunkBytes", 1 << 20);
+    }
+
+    private byte[] export() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(new ArchiveExportRequest(), out);
+        return out.toByteArray();
+    }
+
+    private List<Document> all() {
+        List<Document> all = new ArrayList<>(logs);
+        all.addAll(alerts);
+        return all;
+    }
+
+    @Test
+    void exportThenImportKeepsDocumentsAndTypes() throws IOException {
+        ArchiveImportResult result = service.importArchive(new ByteArrayInputStream(export()), 0);
+
+        assertTrue(result.isCompleted(), result.getError());
+        assertEquals(4, result.getChunks()); // 10 + 10 + 5 logs, 7 alerts
+        assertEquals(Map.of("logs", 25L, "alerts", 7L), result.getInserted());
+        assertEquals(32, stored.size());
+        assertEquals(new HashSet<>(all()), new HashSet<>(stored));
+        for (Document document : stored) {
+            if (document.containsKey("bytes")) {
+                assertInstanceOf(Long.class, document.get("bytes"));
+                assertInstanceOf(Double.class, document.get("score"));
+            }
+        }
+    }
+
+    @Test
+    void truncatedUploadResumesFromTheFirstUnwrittenChunk() throws IOException {
+        byte[] archive = export();
+
+        ArchiveImportResult partial = service.importArchive(
+                new ByteArrayInputStream(Arrays.copyOf(archive, archive.length - 10)), 0);
+        assertFalse(partial.isCompleted());
+        assertEquals(3, partial.getResumeFromChunk());
+
+        ArchiveImportResult rest = service.importArchive(new ByteArrayInputStream(archive), partial.getResumeFromChunk());
+        assertTrue(rest.isCompleted(), rest.getError());
+        assertEquals(3, rest.getSkippedChunks());
+        assertEquals(4, rest.getResumeFromChunk());
+        // every document written exactly once across both runs
+        assertEquals(32, stored.size());
+        assertEquals(new HashSet<>(all()), new HashSet<>(stored));
+    }
+
+    @Test
+    void importLimitIsIndependentOfTheExportChunkSize() throws IOException {
+        ReflectionTestUtils.setField(service, "chunkDocuments", 100);
+        byte[] archive = export();
+        ReflectionTestUtils.setField(service, "chunkDocuments", 10);
+
+        assertTrue(service.importArchive(new ByteArrayInputStream(archive), 0).isCompleted());
+
+        ReflectionTestUtils.setField(service, "maxImportChunkDocuments", 20);
+        ArchiveImportResult rejected = service.importArchive(new ByteArrayInputStream(archive), 0);
+        assertFalse(rejected.isCompleted());
+        assertTrue(rejected.getError().contains("the limit is 20"), rejected.getError());
+    }
+}
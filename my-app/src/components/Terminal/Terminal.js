@@ -39,8 +39,10 @@ const Terminal = ({ device, onClose }) => {
     // Connect to WebSocket
     const WS_URL = process.env.REACT_APP_WS_URL || 'http://localhost:8080/ws';
     const socket = new SockJS(WS_URL);
+    const token = localStorage.getItem('token');
     const stompClient = new Client({
       webSocketFactory: () => socket,
+      connectHeaders: token ? { Authorization: `Bearer ${token}` } : {},
       reconnectDelay: 5000,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
@@ -66,6 +66,7 @@ export const alertsAPI = {
   markAsRead: (id) => api.patch(`/alerts/${id}/read`),
   markAsResolved: (id) => api.patch(`/alerts/${id}/resolved`),
   getStats: () => api.get('/alerts/stats'),
+  triage: (request) => api.post('/alerts/triage', request),
 };
 
 // Logs API
@@ -89,6 +90,24 @@ export const dashboardAPI = {
   getStats: () => api.get('/dashboard/stats'),
   getRecentAlerts: () => api.get('/dashboard/recent-alerts'),
   getDeviceStatus: () => api.get('/dashboard/device-status'),
+  // Resolves with status 304 (no body) when nothing changed since `etag`;
+  // pass params.since to receive only the changes after that version
+  getSnapshot: (params, etag) =>
+    api.get('/dashboard/snapshot', {
+      params,
+      headers: etag ? { 'If-None-Match': etag } : {},
+      validateStatus: (status) => status === 200 || status === 304,
+    }),
+};
+
+// Archive API (large responses: fetch as a blob and let the browser save it)
+export const archiveAPI = {
+  export: (params) => api.get('/archive/export', { params, responseType: 'blob' }),
+  import: (file, resumeFromChunk = 0) =>
+    api.post('/archive/import', file, {
+      params: { resumeFromChunk },
+      headers: { 'Content-Type': 'application/gzip' },
+    }),
 };
 
 export default api;